@@ -20,10 +20,12 @@ import foundation.icon.btp.lib.BMC;
 import foundation.icon.btp.lib.BMCStatus;
 import foundation.icon.btp.lib.BMVScoreInterface;
 import foundation.icon.btp.lib.BSHScoreInterface;
+import foundation.icon.btp.lib.BatchBSHScoreInterface;
 import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.lib.BTPException;
 import foundation.icon.btp.lib.OwnerManager;
 import foundation.icon.btp.lib.OwnerManagerImpl;
+import foundation.icon.score.data.EnumerableSet;
 import foundation.icon.score.util.ArrayUtil;
 import foundation.icon.score.util.Logger;
 import foundation.icon.score.util.StringUtil;
@@ -72,15 +74,17 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
     //
     private final OwnerManager ownerManager = new OwnerManagerImpl("owners");
-    private final BranchDB<String, BranchDB<Address, ArrayDB<byte[]>>> fragments = Context.newBranchDB("fragments", byte[].class);
+    private final Fragments fragments = new Fragments("fragments");
 
     //
     private final Verifiers verifiers = new Verifiers("verifiers");
     private final Services services = new Services("services");
     private final Routes routes = new Routes("routes");
     private final Links links = new Links("links");
+    private final ReachableRoutes reachableRoutes = new ReachableRoutes("reachableRoutes");
 
     private final BranchDB<String, ArrayDB<Address>> relays = Context.newBranchDB("relays", Address.class);
+    private final BranchDB<String, DictDB<Object, Integer>> relayIndexes = Context.newBranchDB("relayIndexes", Integer.class);
     private final DictDB<String, BigInteger> btpLinkNetworkIds = Context.newDictDB("btpLinkNetworkIds", BigInteger.class);
     private final DictDB<BigInteger, BigInteger> btpLinkOffset = Context.newDictDB("btpLinkOffset", BigInteger.class);
     private final VarDB<BigInteger> networkSn = Context.newVarDB("networkSn", BigInteger.class);
@@ -92,11 +96,32 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     private final BranchDB<Address, DictDB<String, BigInteger>> rewards
             = Context.newBranchDB("rewards", BigInteger.class);
     private final VarDB<Address> feeHandler = Context.newVarDB("feeHandler", Address.class);
+    //Map<Service, supports BatchBSH.handleBTPMessages>
+    //it's probed once, then kept until the service is removed
+    private final DictDB<String, Boolean> batchServices = Context.newDictDB("batchServices", Boolean.class);
+    private final Inbox inbox = new Inbox("inbox");
     //Map<NetworkSn, BMCRequest>
     private final DictDB<BigInteger, BMCRequest> requests = Context.newDictDB("requests", BMCRequest.class);
 
+    //write-back cache while handling relay message, it's not persisted
+    private RelaySession session;
+
     public BTPMessageCenter(String _net) {
         this.btpAddr = new BTPAddress(BTPAddress.PROTOCOL_BTP, _net, Context.getAddress().toString());
+        int migrated = links.migrate();
+        if (migrated > 0) {
+            logger.println("constructor", "migrated links:", migrated);
+        }
+        if (reachableRoutes.size() == 0) {
+            for (String net : links.keySet()) {
+                for (BTPAddress reachable : links.getReachable(net).values()) {
+                    reachableRoutes.add(reachable.net(), net);
+                }
+            }
+        }
+        for (Link link : links.values()) {
+            getRelaySet(link.getAddr().toString()).ensureIndexes();
+        }
     }
 
     @External(readonly = true)
@@ -153,6 +178,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             throw BMCException.alreadyExistsBSH();
         }
         services.put(_svc, _addr);
+        batchServices.set(_svc, probeBatch(_svc, _addr));
     }
 
     @External
@@ -162,6 +188,8 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             throw BMCException.notExistsBSH();
         }
         services.remove(_svc);
+        batchServices.set(_svc, null);
+        inbox.setEnabled(_svc, false);
     }
 
     @External(readonly = true)
@@ -177,21 +205,22 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         return new BSHScoreInterface(address);
     }
 
+    private Link loadLink(String net) {
+        return session != null ? session.getLink(net) : links.get(net);
+    }
+
     private void requireLink(String net) {
-        if (!links.containsKey(net)) {
+        if (loadLink(net) == null) {
             throw BMCException.notExistsLink();
         }
     }
 
     private void requireLink(BTPAddress address) {
-        Link link = links.get(address.net());
-        if (link == null || !link.getAddr().equals(address)) {
-            throw BMCException.notExistsLink();
-        }
+        getLink(address);
     }
 
     private Link getLink(String net) {
-        Link link = links.get(net);
+        Link link = loadLink(net);
         if (link == null) {
             throw BMCException.notExistsLink();
         } else {
@@ -200,15 +229,44 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private Link getLink(BTPAddress address) {
-        Link link = links.get(address.net());
+        Link link = loadLink(address.net());
         if (link == null || !link.getAddr().equals(address)) {
             throw BMCException.notExistsLink();
         }
         return link;
     }
 
-    private void putLink(Link link) {
-        links.put(link.getAddr().net(), link);
+    private void setRxSeq(String net, BigInteger rxSeq) {
+        if (session != null) {
+            session.setRxSeq(net, rxSeq);
+        } else {
+            links.setRxSeq(net, rxSeq);
+        }
+    }
+
+    private BigInteger getTxSeq(String net) {
+        return session != null ? session.getTxSeq(net) : links.getTxSeq(net);
+    }
+
+    private void setTxSeq(String net, BigInteger txSeq) {
+        if (session != null) {
+            session.setTxSeq(net, txSeq);
+        } else {
+            links.setTxSeq(net, txSeq);
+        }
+    }
+
+    /**
+     * Flushes and detaches the session before the inter-SCORE call which could call BMC again.
+     * The returned session should be restored after the call.
+     */
+    private RelaySession suspendSession() {
+        RelaySession s = session;
+        if (s != null) {
+            s.flush();
+            session = null;
+        }
+        return s;
     }
 
     @External
@@ -231,8 +289,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         link.setAddr(target);
         link.setRxSeq(BigInteger.ZERO);
         link.setTxSeq(BigInteger.ZERO);
-        link.setReachable(new ArrayList<>());
-        putLink(link);
+        links.put(net, link);
 
         sendInternal(target, new BMCMessage(Internal.Init.name(),
                 new InitMessage(prevLinks).toBytes()).toBytes());
@@ -243,17 +300,15 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         requireOwnerAccess();
         BTPAddress target = BTPAddress.valueOf(_link);
         String net = target.net();
-        Link link = links.remove(net);
-        if (link == null || !link.getAddr().equals(target)) {
-            throw BMCException.notExistsLink();
-        }
+        requireLink(target);
         if (routes.containsValue(net)) {
             throw BMCException.unknown("could not remove, referred by route");
         }
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        for(int i = 0; i < arrayDB.size(); i++ ) {
-            arrayDB.removeLast();
+        for (BTPAddress reachable : links.getReachable(net).values()) {
+            reachableRoutes.remove(reachable.net(), net);
         }
+        links.remove(net);
+        getRelaySet(_link).clear();
         BigInteger networkId = btpLinkNetworkIds.get(_link);
         if (networkId != null) {
             btpLinkNetworkIds.set(_link, null);
@@ -316,13 +371,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External(readonly = true)
     public Map getRoutes() {
         Map<String, String> map = new HashMap<>();
-        for (Link link : links.values()) {
-            for(BTPAddress reachable : link.getReachable()) {
-                if (!map.containsKey(reachable.net())) {
-                    map.put(reachable.net(), link.getAddr().net());
-                }
-            }
-        }
+        map.putAll(reachableRoutes.toMap());
         map.putAll(routes.toMap());
         return map;
     }
@@ -359,7 +408,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private BigInteger[] getFeeList(String net, boolean includeBackward) {
-        FeeInfo fee = fees.get(net);
+        FeeInfo fee = session != null ? session.getFee(net) : fees.get(net);
         if (fee == null) {
             return new BigInteger[]{};
         }
@@ -412,9 +461,13 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
     private void addReward(Address addr, String net, BigInteger amount) {
         if (amount != null && amount.compareTo(BigInteger.ZERO) > 0) {
-            DictDB<String, BigInteger> rewardDictDB = rewards.at(addr);
-            rewardDictDB.set(net,
-                    amount.add(rewardDictDB.getOrDefault(net, BigInteger.ZERO)));
+            if (session != null) {
+                session.setReward(addr, net, amount.add(session.getReward(addr, net)));
+            } else {
+                DictDB<String, BigInteger> rewardDictDB = rewards.at(addr);
+                rewardDictDB.set(net,
+                        amount.add(rewardDictDB.getOrDefault(net, BigInteger.ZERO)));
+            }
         }
     }
 
@@ -475,22 +528,10 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         return feeHandler.get();
     }
 
-    private BTPAddress resolveNextFromReachable(String _net) {
-        int size = links.size();
-        for (int i = 0; i < size; i++) {
-            Link link = links.getValue(i);
-            for (BTPAddress reachable : link.getReachable()) {
-                if (_net.equals(reachable.net())) {
-                    return link.getAddr();
-                }
-            }
-        }
-        return null;
-    }
-
     private BTPAddress resolveNext(String _net) {
-        if (links.containsKey(_net)) {
-            return links.get(_net).getAddr();
+        Link link = loadLink(_net);
+        if (link != null) {
+            return link.getAddr();
         }
 
         String nextNet = routes.get(_net);
@@ -498,9 +539,9 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             return getLink(nextNet).getAddr();
         }
 
-        BTPAddress next = resolveNextFromReachable(_net);
-        if (next != null) {
-            return next;
+        nextNet = reachableRoutes.get(_net);
+        if (nextNet != null) {
+            return getLink(nextNet).getAddr();
         }
         throw BMCException.unreachable();
     }
@@ -511,37 +552,109 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         handleRelayMessage(_prev, msgBytes);
     }
 
+    @External
+    public void handleRelayMessageBytes(String _prev, byte[] _msg) {
+        handleRelayMessage(_prev, _msg);
+    }
+
+    @External
+    public void handleRelayMessages(String[] _prev, byte[][] _msg) {
+        if (_prev.length != _msg.length) {
+            throw BMCException.unknown("invalid length");
+        }
+        Address caller = Context.getCaller();
+        BTPAddress[] prevs = new BTPAddress[_prev.length];
+        for (int i = 0; i < _prev.length; i++) {
+            prevs[i] = BTPAddress.valueOf(_prev[i]);
+            requireLink(prevs[i]);
+            requireRelay(_prev[i], caller);
+        }
+        session = new RelaySession(links, rewards, fees);
+        try {
+            for (int i = 0; i < _prev.length; i++) {
+                //verifier could access BMC, so flush session before verification
+                RelaySession s = suspendSession();
+                Link link;
+                byte[][] serializedMsgs;
+                try {
+                    link = getLink(prevs[i]);
+                    serializedMsgs = verifyRelayMessage(link, _msg[i]);
+                } catch (BTPException e) {
+                    emitRelayMessageDropped(prevs[i], e);
+                    continue;
+                } finally {
+                    session = s;
+                }
+                acceptMessages(prevs[i], caller, link.getRxSeq(), serializedMsgs);
+            }
+            session.flush();
+        } finally {
+            session = null;
+        }
+    }
+
     private void handleRelayMessage(String _prev, byte[] msgBytes) {
         BTPAddress prev = BTPAddress.valueOf(_prev);
         Link link = getLink(prev);
-        BigInteger rxSeq = link.getRxSeq();
+        byte[][] serializedMsgs = verifyRelayMessage(link, msgBytes);
 
+        Address caller = Context.getCaller();
+        requireRelay(_prev, caller);
+        session = new RelaySession(links, rewards, fees);
+        try {
+            acceptMessages(prev, caller, link.getRxSeq(), serializedMsgs);
+            session.flush();
+        } finally {
+            session = null;
+        }
+    }
+
+    private void requireRelay(String _prev, Address caller) {
+        if (!getRelaySet(_prev).contains(caller)) {
+            throw BMCException.unauthorized("not registered relay");
+        }
+    }
+
+    private byte[][] verifyRelayMessage(Link link, byte[] msgBytes) {
         BMVScoreInterface verifier = getVerifier(link.getAddr().net());
         // decode and verify relay message
-        byte[][] serializedMsgs;
         try {
-            serializedMsgs = verifier.handleRelayMessage(btpAddr.toString(), _prev, rxSeq, msgBytes);
+            return verifier.handleRelayMessage(
+                    btpAddr.toString(), link.getAddr().toString(), link.getRxSeq(), msgBytes);
         } catch (Exception e) {
             logger.println("handleRelayMessage", "fail to verify", e.toString());
             throw BTPException.of(e);
         }
-        long msgCount = serializedMsgs.length;
+    }
 
-        Address caller = Context.getCaller();
-        if (getRelayIndex(_prev, caller) < 0) {
-            throw BMCException.unauthorized("not registered relay");
-        }
+    private void acceptMessages(BTPAddress prev, Address caller, BigInteger rxSeq, byte[][] serializedMsgs) {
+        long msgCount = serializedMsgs.length;
         if (msgCount > 0) {
-            link.setRxSeq(rxSeq.add(BigInteger.valueOf(msgCount)));
+            setRxSeq(prev.net(), rxSeq.add(BigInteger.valueOf(msgCount)));
         }
-        putLink(link);
+        dispatchMessages(prev, caller, rxSeq, serializedMsgs);
+    }
 
-        // dispatch BTPMessages
+    private void emitRelayMessageDropped(BTPAddress prev, BTPException e) {
+        String emsg = e.getMessage();
+        if (emsg == null) {
+            emsg = e.toString();
+        }
+        RelayMessageDropped(prev.toString(), e.getCode(), emsg);
+    }
+
+    @EventLog(indexed = 1)
+    public void RelayMessageDropped(String _prev, long _ecode, String _emsg) {
+    }
+
+    private void dispatchMessages(BTPAddress prev, Address caller, BigInteger rxSeq, byte[][] serializedMsgs) {
+        List<BTPMessage> batch = new ArrayList<>();
+        BigInteger batchSeq = null;
         for (byte[] serializedMsg : serializedMsgs) {
             rxSeq = rxSeq.add(BigInteger.ONE);
             BTPMessage msg;
             try {
-                msg = BTPMessage.fromBytes(serializedMsg);
+                msg = LazyBTPMessage.fromBytes(serializedMsg);
             } catch (Exception e) {
                 logger.println("handleRelayMessage",
                         "fail to parse BTPMessage rxSeq:",rxSeq,
@@ -556,30 +669,256 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 //                }
 
             accumulateFee(caller, msg.getFeeInfo());
+            if (isInboxMessage(msg)) {
+                if (batch.size() > 0) {
+                    handleMessages(prev, batchSeq, batch);
+                    batch.clear();
+                }
+                addInbox(prev, rxSeq, msg);
+                continue;
+            }
+            if (batch.size() > 0 && !isBatchable(msg, batch.get(0).getSvc())) {
+                handleMessages(prev, batchSeq, batch);
+                batch.clear();
+            }
+            if (isBatchable(msg, msg.getSvc())) {
+                if (batch.size() == 0) {
+                    batchSeq = rxSeq;
+                }
+                batch.add(msg);
+            } else {
+                dispatchMessage(prev, rxSeq, msg);
+            }
+        }
+        if (batch.size() > 0) {
+            handleMessages(prev, batchSeq, batch);
+        }
+    }
+
+    /**
+     * Returns true if the message is for the service in inbox mode,
+     * or for the service which has messages in the inbox, to keep the order of messages.
+     */
+    private boolean isInboxMessage(BTPMessage msg) {
+        String svc = msg.getSvc();
+        return btpAddr.net().equals(msg.getDst()) &&
+                !INTERNAL_SERVICE.equals(svc) &&
+                inbox.isActive(svc);
+    }
+
+    private void addInbox(BTPAddress prev, BigInteger rxSeq, BTPMessage msg) {
+        String svc = msg.getSvc();
+        BigInteger index = inbox.add(svc, new InboxEntry(prev.toString(), rxSeq, msg.toBytes()));
+        InboxMessage(svc, index, prev.toString(), rxSeq);
+    }
+
+    @EventLog(indexed = 1)
+    public void InboxMessage(String _svc, BigInteger _index, String _prev, BigInteger _seq) {
+    }
+
+    @External
+    public void setServiceInbox(String _svc, boolean _enable) {
+        requireOwnerAccess();
+        if (!services.containsKey(_svc)) {
+            throw BMCException.notExistsBSH();
+        }
+        inbox.setEnabled(_svc, _enable);
+    }
+
+    @External(readonly = true)
+    public boolean getServiceInbox(String _svc) {
+        return inbox.isEnabled(_svc);
+    }
+
+    @External(readonly = true)
+    public BigInteger getInboxSize(String _svc) {
+        return inbox.size(_svc);
+    }
+
+    @External
+    public void executeInbox(String _svc, int _limit) {
+        if (_limit < 1) {
+            throw BMCException.unknown("invalid _limit");
+        }
+        //messages are kept in the inbox until the service is added again
+        if (!services.containsKey(_svc)) {
+            throw BMCException.notExistsBSH();
+        }
+        List<InboxEntry> entries = inbox.poll(_svc, _limit);
+        if (entries.size() == 0) {
+            throw BMCException.unknown("empty inbox");
+        }
+        session = new RelaySession(links, rewards, fees);
+        try {
+            for (InboxEntry entry : entries) {
+                dispatchMessage(BTPAddress.valueOf(entry.getPrev()), entry.getSeq(),
+                        LazyBTPMessage.fromBytes(entry.getMsg()));
+            }
+            session.flush();
+        } finally {
+            session = null;
+        }
+    }
+
+    private boolean isBatchable(BTPMessage msg, String svc) {
+        return btpAddr.net().equals(msg.getDst()) &&
+                msg.getSvc().equals(svc) &&
+                !INTERNAL_SERVICE.equals(svc) &&
+                msg.getSn().compareTo(BigInteger.ZERO) >= 0;
+    }
+
+    private void dispatchMessage(BTPAddress prev, BigInteger rxSeq, BTPMessage msg) {
+        try {
+            if (btpAddr.net().equals(msg.getDst())) {
+                handleMessage(msg);
+                emitBTPEvent(msg, null, Event.RECEIVE);
+            } else {
+                BTPAddress next = resolveNext(msg.getDst());
+                sendMessage(next, msg.toBytes());
+                emitBTPEvent(msg, next, Event.ROUTE);
+            }
+        } catch (BTPException e) {
+            handleDispatchError(prev, rxSeq, msg, e);
+        }
+    }
+
+    private void handleDispatchError(BTPAddress prev, BigInteger rxSeq, BTPMessage msg, BTPException e) {
+        if (msg.getSn().compareTo(BigInteger.ZERO) > 0) {
             try {
-                if (btpAddr.net().equals(msg.getDst())) {
-                    handleMessage(msg);
-                    emitBTPEvent(msg, null, Event.RECEIVE);
-                } else {
-                    BTPAddress next = resolveNext(msg.getDst());
-                    sendMessage(next, msg.toBytes());
-                    emitBTPEvent(msg, next, Event.ROUTE);
+                sendError(prev, msg, e);
+            } catch (BTPException e2) {
+                //abnormal case, if ChainScore.sendBTPMessage revert
+                collectRemainFee(msg.getFeeInfo());
+                emitMessageDropped(prev, rxSeq, msg, e2);
+            }
+        } else {
+            collectRemainFee(msg.getFeeInfo());
+            emitMessageDropped(prev, rxSeq, msg, e);
+        }
+    }
+
+    /**
+     * Delivers consecutive messages for the same service by BatchBSH.handleBTPMessages.
+     * If the BSH doesn't support it or the call fails, delivers each message by BSH.handleBTPMessage.
+     */
+    private void handleMessages(BTPAddress prev, BigInteger rxSeq, List<BTPMessage> msgs) {
+        String svc = msgs.get(0).getSvc();
+        Address address = services.get(svc);
+        if (msgs.size() == 1 || address == null || !isBatchSupported(svc, address)) {
+            for (BTPMessage msg : msgs) {
+                dispatchMessage(prev, rxSeq, msg);
+                rxSeq = rxSeq.add(BigInteger.ONE);
+            }
+            return;
+        }
+
+        int len = msgs.size();
+        String[] froms = new String[len];
+        BigInteger[] sns = new BigInteger[len];
+        byte[][] payloads = new byte[len][];
+        List<DictDB<BigInteger, ResponseInfo>> responseInfoDictDbs = new ArrayList<>();
+        for (int i = 0; i < len; i++) {
+            BTPMessage msg = msgs.get(i);
+            froms[i] = msg.getSrc();
+            sns[i] = msg.getSn();
+            payloads[i] = msg.getPayload();
+            responseInfoDictDbs.add(prepareMessage(msg));
+        }
+
+        BSHScoreInterface service = new BSHScoreInterface(address);
+        BigInteger[] results = null;
+        RelaySession s = suspendSession();
+        try {
+            results = new BatchBSHScoreInterface(address).handleBTPMessages(froms, svc, sns, payloads);
+        } catch (Exception e) {
+            logger.println("handleMessages", "fail to handleBTPMessages", e.toString());
+        } finally {
+            session = s;
+        }
+        if (results != null && results.length != len) {
+            logger.println("handleMessages", "invalid length of results", results.length);
+            results = null;
+        }
+
+        for (int i = 0; i < len; i++) {
+            BTPMessage msg = msgs.get(i);
+            BTPException exception = null;
+            if (results == null) {
+                s = suspendSession();
+                try {
+                    service.handleBTPMessage(froms[i], svc, sns[i], payloads[i]);
+                } catch (Exception e) {
+                    exception = BTPException.of(e, BTPException.Type.BSH);
+                } finally {
+                    session = s;
                 }
-            } catch (BTPException e) {
-                if (msg.getSn().compareTo(BigInteger.ZERO) > 0) {
-                    try {
-                        sendError(prev, msg, e);
-                    } catch (BTPException e2) {
-                        //abnormal case, if ChainScore.sendBTPMessage revert
-                        collectRemainFee(msg.getFeeInfo());
-                        emitMessageDropped(prev, rxSeq, msg, e2);
-                    }
-                } else {
-                    collectRemainFee(msg.getFeeInfo());
-                    emitMessageDropped(prev, rxSeq, msg, e);
+            } else if (results[i].signum() != 0) {
+                exception = BTPException.BSH.ofCode(results[i].intValue(),
+                        "fail to handleBTPMessages code:" + results[i]);
+            }
+            if (exception == null) {
+                emitBTPEvent(msg, null, Event.RECEIVE);
+            } else {
+                DictDB<BigInteger, ResponseInfo> responseInfoDictDb = responseInfoDictDbs.get(i);
+                if (responseInfoDictDb != null) {
+                    responseInfoDictDb.set(sns[i], null);
+                }
+                handleDispatchError(prev, rxSeq, msg, exception);
+            }
+            rxSeq = rxSeq.add(BigInteger.ONE);
+        }
+    }
+
+    /**
+     * Returns whether the BSH implements BatchBSH.
+     * The result of probing is cached per service, and it's cleared only by {@link #removeService(String)}.
+     * So if the BSH is updated in place to add or drop BatchBSH, the owner should remove the service and
+     * add it again to probe it again.
+     */
+    private boolean isBatchSupported(String svc, Address address) {
+        Boolean supported = batchServices.get(svc);
+        if (supported == null) {
+            supported = probeBatch(svc, address);
+            batchServices.set(svc, supported);
+        }
+        return supported;
+    }
+
+    private boolean probeBatch(String svc, Address address) {
+        RelaySession s = suspendSession();
+        try {
+            BigInteger[] results = new BatchBSHScoreInterface(address).handleBTPMessages(
+                    new String[0], svc, new BigInteger[0], new byte[0][]);
+            return results != null && results.length == 0;
+        } catch (Exception e) {
+            return false;
+        } finally {
+            session = s;
+        }
+    }
+
+    /**
+     * Keeps ResponseInfo for the request, or collects remain fee for the one-way message.
+     *
+     * @return DictDB which is stored ResponseInfo, null if it's not stored
+     */
+    private DictDB<BigInteger, ResponseInfo> prepareMessage(BTPMessage msg) {
+        FeeInfo feeInfo = msg.getFeeInfo();
+        if (feeInfo != null) {
+            BigInteger sn = msg.getSn();
+            if (sn.compareTo(BigInteger.ZERO) > 0) {
+                DictDB<BigInteger, ResponseInfo> responseInfoDictDb = responseInfos.at(msg.getSrc()).at(msg.getSvc());
+                ResponseInfo oldInfo = responseInfoDictDb.get(sn);
+                if (oldInfo != null) {
+                    collectRemainFee(oldInfo.getFeeInfo());
                 }
+                responseInfoDictDb.set(sn, new ResponseInfo(msg.getNsn(), feeInfo));
+                return responseInfoDictDb;
+            } else {
+                collectRemainFee(feeInfo);
             }
         }
+        return null;
     }
 
     private void handleMessage(BTPMessage msg) {
@@ -590,26 +929,18 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         FeeInfo feeInfo = msg.getFeeInfo();
         int snCompare = sn.compareTo(BigInteger.ZERO);
         if (snCompare >= 0) {
-            DictDB<BigInteger, ResponseInfo> responseInfoDictDb = null;
-            if (feeInfo != null) {
-                if (snCompare > 0) {
-                    responseInfoDictDb = responseInfos.at(src).at(msg.getSvc());
-                    ResponseInfo oldInfo = responseInfoDictDb.get(sn);
-                    if (oldInfo != null) {
-                        collectRemainFee(oldInfo.getFeeInfo());
-                    }
-                    responseInfoDictDb.set(sn, new ResponseInfo(msg.getNsn(), msg.getFeeInfo()));
-                } else {
-                    collectRemainFee(feeInfo);
-                }
-            }
-
+            DictDB<BigInteger, ResponseInfo> responseInfoDictDb = prepareMessage(msg);
             try {
                 if (svc.equals(INTERNAL_SERVICE)) {
                     internalHandleBTPMessage(src, msg.getNsn(), payload);
                 } else {
                     BSHScoreInterface service = getService(svc);
-                    service.handleBTPMessage(src, svc, sn, payload);
+                    RelaySession s = suspendSession();
+                    try {
+                        service.handleBTPMessage(src, svc, sn, payload);
+                    } finally {
+                        session = s;
+                    }
                 }
             } catch (Exception e) {
                 if (responseInfoDictDb != null) {
@@ -628,7 +959,12 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
                     internalHandleBTPError(src, msg.getNsn(), eCode, eMsg);
                 } else {
                     BSHScoreInterface service = getService(svc);
-                    service.handleBTPError(src, svc, sn, eCode, eMsg);
+                    RelaySession s = suspendSession();
+                    try {
+                        service.handleBTPError(src, svc, sn, eCode, eMsg);
+                    } finally {
+                        session = s;
+                    }
                 }
             } catch (Exception e) {
                 throw BTPException.of(e, BTPException.Type.BSH);
@@ -675,20 +1011,26 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private void addReachable(String net, BTPAddress... reachable) {
-        Link link = getLink(net);
-        List<BTPAddress> list = link.getReachable();
+        requireLink(net);
+        EnumerableSet<BTPAddress> set = links.getReachable(net);
         for (BTPAddress address : reachable) {
-            if (!list.contains(address)) {
-                list.add(address);
+            if (set.add(address)) {
+                reachableRoutes.add(address.net(), net);
             }
         }
-        putLink(link);
     }
 
     private void removeReachable(String net, BTPAddress address) {
-        Link link = getLink(net);
-        link.getReachable().remove(address);
-        putLink(link);
+        requireLink(net);
+        EnumerableSet<BTPAddress> set = links.getReachable(net);
+        if (set.remove(address)) {
+            for (BTPAddress v : set.values()) {
+                if (v.net().equals(address.net())) {
+                    return;
+                }
+            }
+            reachableRoutes.remove(address.net(), net);
+        }
     }
 
     private void handleResponse(BigInteger nsn, long result) {
@@ -838,20 +1180,20 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private void sendMessage(BTPAddress next, byte[] serializedMsg) {
-        Link link = getLink(next);
-        link.setTxSeq(link.getTxSeq().add(BigInteger.ONE));
-        putLink(link);
+        requireLink(next);
+        String net = next.net();
+        BigInteger txSeq = getTxSeq(net).add(BigInteger.ONE);
         BigInteger networkId = btpLinkNetworkIds.get(next.toString());
         if (networkId == null) {
-            Message(next.toString(), link.getTxSeq(), serializedMsg);
+            setTxSeq(net, txSeq);
+            Message(next.toString(), txSeq, serializedMsg);
         } else {
             try {
                 Context.call(CHAIN_SCORE, "sendBTPMessage", networkId, serializedMsg);
             } catch (Exception e) {
-                link.setTxSeq(link.getTxSeq().subtract(BigInteger.ONE));
-                putLink(link);
                 throw BMCException.unknown("fail to sendBTPMessage :" + e);
             }
+            setTxSeq(net, txSeq);
         }
     }
 
@@ -906,59 +1248,23 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void handleFragment(String _prev, String _msg, int _idx) {
         logger.println("handleFragment", "_prev", _prev, "_idx:", _idx, "len(_msg):" + _msg.length());
+        handleFragment(_prev, Base64.getUrlDecoder().decode(_msg.getBytes()), _idx);
+    }
+
+    @External
+    public void handleFragmentBytes(String _prev, byte[] _msg, int _idx) {
+        logger.println("handleFragmentBytes", "_prev", _prev, "_idx:", _idx, "len(_msg):" + _msg.length);
+        handleFragment(_prev, _msg, _idx);
+    }
+
+    private void handleFragment(String _prev, byte[] fragmentBytes, int _idx) {
         requireLink(BTPAddress.valueOf(_prev));
         Address caller = Context.getCaller();
-        if (getRelayIndex(_prev, caller) < 0) {
-            throw BMCException.unauthorized("not registered relay");
-        }
-        byte[] fragmentBytes = Base64.getUrlDecoder().decode(_msg.getBytes());
-        final int INDEX_LAST = 0;
-        final int INDEX_NEXT = 1;
-        final int INDEX_OFFSET = 2;
-        ArrayDB<byte[]> fragments = this.fragments.at(_prev).at(caller);
-        if (_idx < 0) {
-            int last = _idx * -1;
-            if (fragments.size() == 0) {
-                fragments.add(Integer.toString(last).getBytes());
-                fragments.add(Integer.toString(last - 1).getBytes());
-                fragments.add(fragmentBytes);
-            } else {
-                fragments.set(INDEX_LAST, Integer.toString(last).getBytes());
-                fragments.set(INDEX_NEXT, Integer.toString(last - 1).getBytes());
-                fragments.set(INDEX_OFFSET, fragmentBytes);
-            }
-        } else {
-            int next = Integer.parseInt(new String(fragments.get(INDEX_NEXT)));
-            if (next != _idx) {
-                throw BMCException.unknown("invalid _idx");
-            }
-            int last = Integer.parseInt(new String(fragments.get(INDEX_LAST)));
-            if (_idx == 0) {
-                int total = 0;
-                byte[][] bytesArr = new byte[last + 1][];
-                for (int i = 0; i < last; i++) {
-                    bytesArr[i] = fragments.get(i + INDEX_OFFSET);
-                    total += bytesArr[i].length;
-                }
-                bytesArr[last] = fragmentBytes;
-                total += fragmentBytes.length;
-                byte[] msgBytes = new byte[total];
-                int pos = 0;
-                for (byte[] bytes : bytesArr) {
-                    System.arraycopy(bytes, 0, msgBytes, pos, bytes.length);
-                    pos += bytes.length;
-                }
-                logger.println("handleFragment", "handleRelayMessage", "fragments:", last + 1, "len:" + total);
-                handleRelayMessage(_prev, msgBytes);
-            } else {
-                fragments.set(INDEX_NEXT, Integer.toString(_idx - 1).getBytes());
-                int INDEX_MSG = last - _idx + INDEX_OFFSET;
-                if (INDEX_MSG < fragments.size()) {
-                    fragments.set(INDEX_MSG, fragmentBytes);
-                } else {
-                    fragments.add(fragmentBytes);
-                }
-            }
+        requireRelay(_prev, caller);
+        byte[] msgBytes = fragments.add(_prev, caller, fragmentBytes, _idx);
+        if (msgBytes != null) {
+            logger.println("handleFragment", "handleRelayMessage", "len:" + msgBytes.length);
+            handleRelayMessage(_prev, msgBytes);
         }
     }
 
@@ -985,8 +1291,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         if (isInvalidSn(snCompare, _nsn.compareTo(BigInteger.ZERO))) {
             throw BMCException.invalidSn();
         }
-        link.setRxSeq(_seq);
-        putLink(link);
+        links.setRxSeq(prev.net(), _seq);
 
         BTPMessage assumeMsg = new BTPMessage();
         assumeMsg.setSrc(_src);
@@ -1020,42 +1325,24 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     public void MessageDropped(String _prev, BigInteger _seq, byte[] _msg, long _ecode, String _emsg) {
     }
 
-    private int getRelayIndex(String _link, Address _addr) {
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        for (int i = 0 ; i < arrayDB.size(); i++) {
-            if (arrayDB.get(i).equals(_addr)) {
-                return i;
-            }
-        }
-        return -1;
+    private EnumerableSet<Address> getRelaySet(String _link) {
+        return new EnumerableSet<>("relays", Address.class, relays.at(_link), relayIndexes.at(_link));
     }
 
     @External
     public void addRelay(String _link, Address _addr) {
         requireOwnerAccess();
         requireLink(BTPAddress.valueOf(_link));
-        if (getRelayIndex(_link, _addr) >= 0) {
+        if (!getRelaySet(_link).add(_addr)) {
             throw BMCException.alreadyExistsBMR();
         }
-        relays.at(_link).add(_addr);
     }
 
     @External
     public void removeRelay(String _link, Address _addr) {
         requireOwnerAccess();
         requireLink(BTPAddress.valueOf(_link));
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        if (arrayDB.size() == 0) {
-            throw BMCException.notExistsBMR();
-        }
-        Address last = arrayDB.pop();
-        if (!last.equals(_addr)) {
-            for (int i = 0 ; i < arrayDB.size(); i++) {
-                if (arrayDB.get(i).equals(_addr)) {
-                    arrayDB.set(i, last);
-                    return;
-                }
-            }
+        if (!getRelaySet(_link).remove(_addr)) {
             throw BMCException.notExistsBMR();
         }
     }
@@ -1063,12 +1350,16 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External(readonly = true)
     public Address[] getRelays(String _link) {
         requireLink(BTPAddress.valueOf(_link));
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        Address[] arr = new Address[arrayDB.size()];
-        for (int i = 0 ; i < arrayDB.size(); i++) {
-            arr[i] = arrayDB.get(i);
+        return ArrayUtil.toAddressArray(getRelaySet(_link).values());
+    }
+
+    @External(readonly = true)
+    public Address[] getRelaysPage(String _link, int _offset, int _limit) {
+        requireLink(BTPAddress.valueOf(_link));
+        if (_offset < 0 || _limit < 0) {
+            throw BMCException.unknown("invalid _offset or _limit");
         }
-        return arr;
+        return ArrayUtil.toAddressArray(getRelaySet(_link).range(_offset, _limit));
     }
 
     /* Delegate OwnerManager */
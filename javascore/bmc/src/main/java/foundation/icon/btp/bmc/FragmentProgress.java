@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+/**
+ * Progress of the fragments of Relay Message which are received from a relay.
+ * The fragments are received in descending order of index, from 'last' to zero.
+ */
+public class FragmentProgress {
+    private int last;
+    private int next;
+    private int length; //total length of received fragments
+
+    public int getLast() {
+        return last;
+    }
+
+    public void setLast(int last) {
+        this.last = last;
+    }
+
+    public int getNext() {
+        return next;
+    }
+
+    public void setNext(int next) {
+        this.next = next;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FragmentProgress{");
+        sb.append("last=").append(last);
+        sb.append(", next=").append(next);
+        sb.append(", length=").append(length);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static void writeObject(ObjectWriter writer, FragmentProgress obj) {
+        obj.writeObject(writer);
+    }
+
+    public static FragmentProgress readObject(ObjectReader reader) {
+        FragmentProgress obj = new FragmentProgress();
+        reader.beginList();
+        obj.setLast(reader.readInt());
+        obj.setNext(reader.readInt());
+        obj.setLength(reader.readInt());
+        reader.end();
+        return obj;
+    }
+
+    public void writeObject(ObjectWriter writer) {
+        writer.beginList(3);
+        writer.write(this.getLast());
+        writer.write(this.getNext());
+        writer.write(this.getLength());
+        writer.end();
+    }
+
+    public static FragmentProgress fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return FragmentProgress.readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        FragmentProgress.writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.Logger;
+import score.Address;
+import score.ArrayDB;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+
+/**
+ * Fragments of Relay Message for each link and relay.
+ * The fragments are kept in ArrayDB in received order without any other value,
+ * and the progress is kept separately with suffix("progress").
+ * Stored fragments are removed when the message is assembled or superseded by a new message.
+ */
+public class Fragments {
+    private static final Logger logger = Logger.getLogger(Fragments.class);
+
+    private final BranchDB<String, BranchDB<Address, ArrayDB<byte[]>>> fragments;
+    private final BranchDB<String, DictDB<Address, FragmentProgress>> progresses;
+
+    public Fragments(String id) {
+        fragments = Context.newBranchDB(id, byte[].class);
+        progresses = Context.newBranchDB(id + "|progress", FragmentProgress.class);
+    }
+
+    private static void clear(ArrayDB<byte[]> db) {
+        int size = db.size();
+        for (int i = 0; i < size; i++) {
+            db.pop();
+        }
+    }
+
+    /**
+     * Stores the fragment, and returns the assembled message if the fragment is the last one.
+     *
+     * @param prev     BTP Address of the previous BMC
+     * @param relay    Address of relay
+     * @param fragment fragment of Relay Message
+     * @param idx      negative value of the last index for the first fragment, otherwise index of fragment
+     * @return assembled Relay Message if idx is zero, otherwise null
+     */
+    public byte[] add(String prev, Address relay, byte[] fragment, int idx) {
+        ArrayDB<byte[]> db = fragments.at(prev).at(relay);
+        DictDB<Address, FragmentProgress> progressDB = progresses.at(prev);
+        FragmentProgress progress;
+        if (idx < 0) {
+            //supersede the message in progress
+            clear(db);
+            progress = new FragmentProgress();
+            progress.setLast(-idx);
+            progress.setNext(-idx - 1);
+            progress.setLength(fragment.length);
+            db.add(fragment);
+            progressDB.set(relay, progress);
+            return null;
+        }
+
+        progress = progressDB.get(relay);
+        if (progress == null || progress.getNext() != idx) {
+            throw BMCException.unknown("invalid _idx");
+        }
+        int length = progress.getLength() + fragment.length;
+        if (length < 0) {
+            throw BMCException.unknown("too large message");
+        }
+        progress.setLength(length);
+        if (idx > 0) {
+            progress.setNext(idx - 1);
+            db.add(fragment);
+            progressDB.set(relay, progress);
+            return null;
+        }
+
+        byte[] msg = new byte[length];
+        int end = length - fragment.length;
+        System.arraycopy(fragment, 0, msg, end, fragment.length);
+        //pop from the last stored fragment, so that the message is filled from the end
+        for (int i = db.size(); i > 0; i--) {
+            byte[] bytes = db.pop();
+            end -= bytes.length;
+            System.arraycopy(bytes, 0, msg, end, bytes.length);
+        }
+        progressDB.set(relay, null);
+        logger.println("add", "assembled", "fragments:", progress.getLast() + 1, "len:", length);
+        return msg;
+    }
+}
@@ -39,6 +39,51 @@ public interface ICONSpecific {
     @External
     void handleFragment(String _prev, String _msg, int _idx);
 
+    /**
+     * Same as {@link #handleFragment(String, String, int)} except the fragment is given as bytes
+     * It's allowed to be called by registered Relay.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _msg  Bytes ( Fragmented serialized bytes of Relay Message )
+     * @param _idx  Integer ( Index of fragment )
+     */
+    @External
+    void handleFragmentBytes(String _prev, byte[] _msg, int _idx);
+
+    /**
+     * Same as {@link BMC#handleRelayMessage(String, String)} except the Relay Message is given as bytes
+     * It's allowed to be called by registered Relay.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _msg  Bytes ( serialized bytes of Relay Message )
+     */
+    @External
+    void handleRelayMessageBytes(String _prev, byte[] _msg);
+
+    /**
+     * Handles the Relay Messages of the links in order, as {@link #handleRelayMessageBytes(String, byte[])}
+     * If the verification of a Relay Message fails, the Relay Message is dropped with RelayMessageDropped event
+     * and the others are handled.
+     * It's allowed to be called by registered Relay of all the links.
+     *
+     * @param _prev String[] ( BTP Addresses of the previous BMCs )
+     * @param _msg  Bytes[] ( serialized bytes of Relay Messages )
+     */
+    @External
+    void handleRelayMessages(String[] _prev, byte[][] _msg);
+
+    /**
+     * (EventLog) Drop the Relay Message which is failed to verify in {@link #handleRelayMessages(String[], byte[][])}
+     * <p>
+     * indexed: 1
+     *
+     * @param _prev  String ( BTP Address of the previous BMC )
+     * @param _ecode Integer ( error code )
+     * @param _emsg  String ( error message )
+     */
+    @EventLog(indexed = 1)
+    void RelayMessageDropped(String _prev, long _ecode, String _emsg);
+
     /**
      * TODO [TBD] add 'addRelay' to IIP-25.BMC.Writable methods
      * Registers relay for the network.
@@ -71,6 +116,17 @@ public interface ICONSpecific {
     @External(readonly = true)
     Address[] getRelays(String _link);
 
+    /**
+     * Get registered relays by link in the range, ordered same as {@link #getRelays(String)}.
+     *
+     * @param _link   String (BTP Address of connected BMC)
+     * @param _offset Integer (index of the first relay to return)
+     * @param _limit  Integer (maximum number of relays to return)
+     * @return A list of address of relay
+     */
+    @External(readonly = true)
+    Address[] getRelaysPage(String _link, int _offset, int _limit);
+
     /**
      * (EventLog) Drops the next message that to be relayed from a specific network
      * Called by the operator to manage the BTP network.
@@ -132,4 +188,59 @@ public interface ICONSpecific {
     @External(readonly = true)
     long getBTPLinkOffset(String _link);
 
+    /**
+     * Sets inbox mode of the service.
+     * In inbox mode, the messages for the service are kept in the inbox with InboxMessage event
+     * instead of calling the service, and delivered by {@link #executeInbox(String, int)}.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _svc    String ( name of the service )
+     * @param _enable Boolean ( true to enable inbox mode )
+     */
+    @External
+    void setServiceInbox(String _svc, boolean _enable);
+
+    /**
+     * Get inbox mode of the service
+     *
+     * @param _svc String ( name of the service )
+     * @return Boolean true if inbox mode is enabled
+     */
+    @External(readonly = true)
+    boolean getServiceInbox(String _svc);
+
+    /**
+     * Get the number of messages in the inbox of the service
+     *
+     * @param _svc String ( name of the service )
+     * @return Integer the number of messages
+     */
+    @External(readonly = true)
+    BigInteger getInboxSize(String _svc);
+
+    /**
+     * Delivers the messages in the inbox of the service in order, as delivered in handleRelayMessage.
+     * Messages which are received after inbox mode is disabled are kept in the inbox until the inbox is empty,
+     * to keep the order of messages.
+     * It reverts if the service is not registered, then the messages are kept until the service is added again.
+     *
+     * @param _svc   String ( name of the service )
+     * @param _limit Integer ( maximum number of messages to deliver )
+     */
+    @External
+    void executeInbox(String _svc, int _limit);
+
+    /**
+     * (EventLog) Keep the message in the inbox of the service
+     * <p>
+     * indexed: 1
+     *
+     * @param _svc   String ( name of the service )
+     * @param _index Integer ( index of the message in the inbox )
+     * @param _prev  String ( BTP Address of the previous BMC )
+     * @param _seq   Integer ( sequence number of the message from connected BMC )
+     */
+    @EventLog(indexed = 1)
+    void InboxMessage(String _svc, BigInteger _index, String _prev, BigInteger _seq);
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import scorex.util.ArrayList;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Queue of the received messages for each service, which are delivered later by BMC.executeInbox.
+ * Messages are kept in DictDB by index from head to tail, and the indexes are reset when the queue is empty.
+ * The service is active while the inbox mode is enabled or the queue is not empty,
+ * and it's kept as a flag, so that BMC checks it with one read for each message.
+ */
+public class Inbox {
+    private final DictDB<String, Boolean> enabled;
+    private final DictDB<String, Boolean> active;
+    private final DictDB<String, BigInteger> heads;
+    private final DictDB<String, BigInteger> tails;
+    private final BranchDB<String, DictDB<BigInteger, InboxEntry>> entries;
+
+    public Inbox(String id) {
+        enabled = Context.newDictDB(id + "|enabled", Boolean.class);
+        active = Context.newDictDB(id + "|active", Boolean.class);
+        heads = Context.newDictDB(id + "|head", BigInteger.class);
+        tails = Context.newDictDB(id + "|tail", BigInteger.class);
+        entries = Context.newBranchDB(id, InboxEntry.class);
+    }
+
+    public boolean isEnabled(String svc) {
+        return enabled.getOrDefault(svc, false);
+    }
+
+    public void setEnabled(String svc, boolean enable) {
+        enabled.set(svc, enable ? Boolean.TRUE : null);
+        active.set(svc, enable || size(svc).signum() > 0 ? Boolean.TRUE : null);
+    }
+
+    /**
+     * @return true if the inbox mode is enabled or the queue is not empty
+     */
+    public boolean isActive(String svc) {
+        return active.getOrDefault(svc, false);
+    }
+
+    public BigInteger size(String svc) {
+        return tails.getOrDefault(svc, BigInteger.ZERO).subtract(heads.getOrDefault(svc, BigInteger.ZERO));
+    }
+
+    /**
+     * @return index of the added entry
+     */
+    public BigInteger add(String svc, InboxEntry entry) {
+        BigInteger tail = tails.getOrDefault(svc, BigInteger.ZERO);
+        entries.at(svc).set(tail, entry);
+        tails.set(svc, tail.add(BigInteger.ONE));
+        if (tail.signum() == 0) {
+            active.set(svc, Boolean.TRUE);
+        }
+        return tail;
+    }
+
+    /**
+     * Removes and returns the entries from the head
+     *
+     * @param limit maximum number of entries
+     * @return the entries in order, empty if the queue is empty
+     */
+    public List<InboxEntry> poll(String svc, int limit) {
+        List<InboxEntry> list = new ArrayList<>();
+        BigInteger head = heads.getOrDefault(svc, BigInteger.ZERO);
+        BigInteger tail = tails.getOrDefault(svc, BigInteger.ZERO);
+        DictDB<BigInteger, InboxEntry> db = entries.at(svc);
+        while (list.size() < limit && head.compareTo(tail) < 0) {
+            list.add(db.get(head));
+            db.set(head, null);
+            head = head.add(BigInteger.ONE);
+        }
+        if (list.size() > 0) {
+            if (head.equals(tail)) {
+                heads.set(svc, null);
+                tails.set(svc, null);
+                if (!isEnabled(svc)) {
+                    active.set(svc, null);
+                }
+            } else {
+                heads.set(svc, head);
+            }
+        }
+        return list;
+    }
+}
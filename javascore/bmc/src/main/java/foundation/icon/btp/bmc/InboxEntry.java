@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+import java.math.BigInteger;
+
+public class InboxEntry {
+    private String prev;
+    private BigInteger seq;
+    private byte[] msg; //serialized bytes of BTPMessage as received
+
+    public InboxEntry() {
+    }
+
+    public InboxEntry(String prev, BigInteger seq, byte[] msg) {
+        this.prev = prev;
+        this.seq = seq;
+        this.msg = msg;
+    }
+
+    public String getPrev() {
+        return prev;
+    }
+
+    public void setPrev(String prev) {
+        this.prev = prev;
+    }
+
+    public BigInteger getSeq() {
+        return seq;
+    }
+
+    public void setSeq(BigInteger seq) {
+        this.seq = seq;
+    }
+
+    public byte[] getMsg() {
+        return msg;
+    }
+
+    public void setMsg(byte[] msg) {
+        this.msg = msg;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("InboxEntry{");
+        sb.append("prev='").append(prev).append('\'');
+        sb.append(", seq=").append(seq);
+        sb.append(", msg=").append(msg == null ? "null" : msg.length);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static void writeObject(ObjectWriter writer, InboxEntry obj) {
+        obj.writeObject(writer);
+    }
+
+    public static InboxEntry readObject(ObjectReader reader) {
+        InboxEntry obj = new InboxEntry();
+        reader.beginList();
+        obj.setPrev(reader.readString());
+        obj.setSeq(reader.readBigInteger());
+        obj.setMsg(reader.readByteArray());
+        reader.end();
+        return obj;
+    }
+
+    public void writeObject(ObjectWriter writer) {
+        writer.beginList(3);
+        writer.write(this.getPrev());
+        writer.write(this.getSeq());
+        writer.write(this.getMsg());
+        writer.end();
+    }
+
+    public static InboxEntry fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return InboxEntry.readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        InboxEntry.writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
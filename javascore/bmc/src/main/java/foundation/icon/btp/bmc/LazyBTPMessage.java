@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.RLPUtil;
+import score.Context;
+import score.ObjectReader;
+
+import java.math.BigInteger;
+
+/**
+ * BTPMessage which keeps the serialized bytes.
+ * The payload is copied from the serialized bytes only if it's required,
+ * and {@link #toBytes()} replaces only FeeInfo of the serialized bytes, if other fields are not changed.
+ */
+public class LazyBTPMessage extends BTPMessage {
+    static final int INDEX_PAYLOAD = 4;
+    static final int INDEX_FEE_INFO = 6;
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private boolean payloadLoaded;
+    private boolean modified;
+
+    private LazyBTPMessage(byte[] bytes, int[] offsets) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+    }
+
+    public static LazyBTPMessage fromBytes(byte[] bytes) {
+        int[] offsets = RLPUtil.listItemOffsets(bytes, 0);
+        if (offsets.length <= INDEX_FEE_INFO) {
+            throw new IllegalArgumentException("invalid BTPMessage");
+        }
+        LazyBTPMessage obj = new LazyBTPMessage(bytes, offsets);
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        reader.beginList();
+        obj.setSrc(reader.readString());
+        obj.setDst(reader.readString());
+        obj.setSvc(reader.readString());
+        obj.setSn(reader.readBigInteger());
+        reader.skip();
+        obj.setNsn(reader.readBigInteger());
+        obj.setFeeInfo(reader.readNullable(FeeInfo.class));
+        reader.end();
+        obj.modified = false;
+        return obj;
+    }
+
+    @Override
+    public void setSrc(String src) {
+        modified = true;
+        super.setSrc(src);
+    }
+
+    @Override
+    public void setDst(String dst) {
+        modified = true;
+        super.setDst(dst);
+    }
+
+    @Override
+    public void setSvc(String svc) {
+        modified = true;
+        super.setSvc(svc);
+    }
+
+    @Override
+    public void setSn(BigInteger sn) {
+        modified = true;
+        super.setSn(sn);
+    }
+
+    @Override
+    public void setNsn(BigInteger nsn) {
+        modified = true;
+        super.setNsn(nsn);
+    }
+
+    @Override
+    public byte[] getPayload() {
+        if (!payloadLoaded) {
+            int offset = offsets[INDEX_PAYLOAD];
+            int from = RLPUtil.contentOffset(bytes, offset);
+            int len = RLPUtil.contentLength(bytes, offset);
+            byte[] payload = new byte[len];
+            System.arraycopy(bytes, from, payload, 0, len);
+            super.setPayload(payload);
+            payloadLoaded = true;
+        }
+        return super.getPayload();
+    }
+
+    @Override
+    public void setPayload(byte[] payload) {
+        payloadLoaded = true;
+        modified = true;
+        super.setPayload(payload);
+    }
+
+    @Override
+    public byte[] toBytes() {
+        if (modified) {
+            return super.toBytes();
+        }
+        FeeInfo feeInfo = getFeeInfo();
+        byte[] feeInfoBytes = feeInfo == null ? RLPUtil.NULL : feeInfo.toBytes();
+        int from = offsets[0];
+        int prefixLen = offsets[INDEX_FEE_INFO] - from;
+        int contentLen = prefixLen + feeInfoBytes.length;
+        byte[] ret = new byte[RLPUtil.listHeaderLength(contentLen) + contentLen];
+        int pos = RLPUtil.writeListHeader(ret, 0, contentLen);
+        System.arraycopy(bytes, from, ret, pos, prefixLen);
+        System.arraycopy(feeInfoBytes, 0, ret, pos + prefixLen, feeInfoBytes.length);
+        return ret;
+    }
+}
@@ -18,7 +18,6 @@ package foundation.icon.btp.bmc;
 
 import foundation.icon.btp.lib.BTPAddress;
 import score.Address;
-import score.ArrayDB;
 import score.ByteArrayObjectWriter;
 import score.Context;
 import score.ObjectReader;
@@ -30,10 +29,12 @@ import java.util.List;
 
 public class Link {
     private BTPAddress addr; //primary key
+
+    //stored in Links with suffix("rxSeq"), suffix("txSeq"), not serialized
     private BigInteger rxSeq;
     private BigInteger txSeq;
 
-    //with suffix("reachable") ArrayDB<String>
+    //stored in Links with suffix("reachable") EnumerableSet<BTPAddress>, not serialized
     private List<BTPAddress> reachable;
 
     public BTPAddress getAddr() {
@@ -87,35 +88,26 @@ public class Link {
         Link obj = new Link();
         reader.beginList();
         obj.setAddr(reader.readNullable(BTPAddress.class));
-        obj.setRxSeq(reader.readNullable(BigInteger.class));
-        obj.setTxSeq(reader.readNullable(BigInteger.class));
-        if (reader.beginNullableList()) {
-            List<BTPAddress> reachable = new ArrayList<>();
-            while(reader.hasNext()) {
-                reachable.add(reader.readNullable(BTPAddress.class));
+        if (reader.hasNext()) {
+            //legacy format [addr, rxSeq, txSeq, [reachable...]]
+            obj.setRxSeq(reader.readNullable(BigInteger.class));
+            obj.setTxSeq(reader.readNullable(BigInteger.class));
+            if (reader.beginNullableList()) {
+                List<BTPAddress> reachable = new ArrayList<>();
+                while(reader.hasNext()) {
+                    reachable.add(reader.readNullable(BTPAddress.class));
+                }
+                obj.setReachable(reachable);
+                reader.end();
             }
-            obj.setReachable(reachable);
-            reader.end();
         }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(4);
+        writer.beginList(1);
         writer.writeNullable(this.getAddr());
-        writer.writeNullable(this.getRxSeq());
-        writer.writeNullable(this.getTxSeq());
-        List<BTPAddress> reachable = this.getReachable();
-        if (reachable != null) {
-            writer.beginNullableList(reachable.size());
-            for(BTPAddress v : reachable) {
-                writer.write(v);
-            }
-            writer.end();
-        } else {
-            writer.writeNull();
-        }
         writer.end();
     }
 
@@ -16,15 +16,106 @@
 
 package foundation.icon.btp.bmc;
 
+import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.score.data.EnumerableDictDB;
+import foundation.icon.score.data.EnumerableSet;
 import foundation.icon.score.util.Logger;
+import score.Context;
+import score.DictDB;
 
-import java.util.Map;
+import java.math.BigInteger;
 
+/**
+ * Serialized {@link Link} holds only the address of the link,
+ * rxSeq and txSeq are stored in the separated DictDB,
+ * and reachable is stored in the separated EnumerableSet for each link.
+ * {@link #get(String)} returns Link with rxSeq and txSeq, but without reachable.
+ */
 public class Links extends EnumerableDictDB<String, Link> {
     private static final Logger logger = Logger.getLogger(Links.class);
+    private final DictDB<String, BigInteger> rxSeqs;
+    private final DictDB<String, BigInteger> txSeqs;
 
     public Links(String id) {
         super(id, String.class, Link.class);
+        this.rxSeqs = Context.newDictDB(concatId("rxSeq"), BigInteger.class);
+        this.txSeqs = Context.newDictDB(concatId("txSeq"), BigInteger.class);
+    }
+
+    public EnumerableSet<BTPAddress> getReachable(String net) {
+        return new EnumerableSet<>(concatId(concatId("reachable"), net), BTPAddress.class);
+    }
+
+    public BigInteger getRxSeq(String net) {
+        return rxSeqs.getOrDefault(net, BigInteger.ZERO);
+    }
+
+    public void setRxSeq(String net, BigInteger rxSeq) {
+        rxSeqs.set(net, rxSeq);
+    }
+
+    public BigInteger getTxSeq(String net) {
+        return txSeqs.getOrDefault(net, BigInteger.ZERO);
+    }
+
+    public void setTxSeq(String net, BigInteger txSeq) {
+        txSeqs.set(net, txSeq);
+    }
+
+    @Override
+    public Link get(String net) {
+        Link link = super.get(net);
+        if (link != null) {
+            link.setRxSeq(getRxSeq(net));
+            link.setTxSeq(getTxSeq(net));
+        }
+        return link;
+    }
+
+    @Override
+    public Link put(String net, Link link) {
+        Link old = super.put(net, link);
+        setRxSeq(net, link.getRxSeq());
+        setTxSeq(net, link.getTxSeq());
+        if (link.getReachable() != null) {
+            EnumerableSet<BTPAddress> reachable = getReachable(net);
+            for (BTPAddress address : link.getReachable()) {
+                reachable.add(address);
+            }
+        }
+        return old;
+    }
+
+    @Override
+    public Link remove(String net) {
+        Link old = super.remove(net);
+        if (old != null) {
+            old.setRxSeq(getRxSeq(net));
+            old.setTxSeq(getTxSeq(net));
+            setRxSeq(net, null);
+            setTxSeq(net, null);
+            getReachable(net).clear();
+        }
+        return old;
+    }
+
+    /**
+     * Converts the links which is stored in legacy format [addr, rxSeq, txSeq, [reachable...]].
+     *
+     * @return the number of migrated links
+     */
+    public int migrate() {
+        int cnt = 0;
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            Link link = getValue(i);
+            if (link.getRxSeq() != null) {
+                String net = link.getAddr().net();
+                logger.println("migrate", link);
+                put(net, link);
+                cnt++;
+            }
+        }
+        return cnt;
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.data.EnumerableDictDB;
+import foundation.icon.score.data.EnumerableSet;
+import foundation.icon.score.util.Logger;
+
+/**
+ * Routes from reachable of links, Network Address of destination => Network Address of the next link.
+ * Every links which could reach the destination are kept with suffix("links"),
+ * so that another link is selected when the selected link is removed.
+ */
+public class ReachableRoutes extends EnumerableDictDB<String, String> {
+    private static final Logger logger = Logger.getLogger(ReachableRoutes.class);
+
+    public ReachableRoutes(String id) {
+        super(id, String.class, String.class);
+    }
+
+    private EnumerableSet<String> getLinks(String dst) {
+        return new EnumerableSet<>(concatId(concatId("links"), dst), String.class);
+    }
+
+    public void add(String dst, String link) {
+        EnumerableSet<String> links = getLinks(dst);
+        if (links.add(link) && links.size() == 1) {
+            put(dst, link);
+        }
+    }
+
+    public void remove(String dst, String link) {
+        EnumerableSet<String> links = getLinks(dst);
+        if (links.remove(link)) {
+            if (links.size() == 0) {
+                remove(dst);
+            } else if (link.equals(get(dst))) {
+                put(dst, links.at(0));
+            }
+        }
+    }
+}
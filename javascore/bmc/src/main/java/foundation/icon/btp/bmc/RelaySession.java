@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.Address;
+import score.BranchDB;
+import score.DictDB;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Transaction scoped write-back cache for link, reward and fee state.
+ * Values are loaded once, modified in memory and each modified key is written once by {@link #flush()}.
+ * It must be flushed and cleared around the inter-SCORE call which could access BMC again.
+ */
+public class RelaySession {
+    private final Links links;
+    private final BranchDB<Address, DictDB<String, BigInteger>> rewards;
+    private final Fees fees;
+
+    private final Map<String, Link> linkCache = new HashMap<>();
+    private final Map<String, Slot<BigInteger>> rxSeqs = new HashMap<>();
+    private final Map<String, Slot<BigInteger>> txSeqs = new HashMap<>();
+    private final Map<Address, Map<String, Slot<BigInteger>>> rewardCache = new HashMap<>();
+    private final Map<String, FeeInfo> feeCache = new HashMap<>();
+
+    static class Slot<V> {
+        V value;
+        boolean dirty;
+
+        Slot(V value) {
+            this.value = value;
+        }
+
+        void set(V value) {
+            this.value = value;
+            this.dirty = true;
+        }
+    }
+
+    public RelaySession(Links links, BranchDB<Address, DictDB<String, BigInteger>> rewards, Fees fees) {
+        this.links = links;
+        this.rewards = rewards;
+        this.fees = fees;
+    }
+
+    public Link getLink(String net) {
+        if (linkCache.containsKey(net)) {
+            return linkCache.get(net);
+        }
+        //Links.get loads rxSeq and txSeq, which are managed by rxSeqs and txSeqs
+        Link link = links.get(net);
+        linkCache.put(net, link);
+        return link;
+    }
+
+    private Slot<BigInteger> rxSeq(String net) {
+        Slot<BigInteger> slot = rxSeqs.get(net);
+        if (slot == null) {
+            slot = new Slot<>(links.getRxSeq(net));
+            rxSeqs.put(net, slot);
+        }
+        return slot;
+    }
+
+    public BigInteger getRxSeq(String net) {
+        return rxSeq(net).value;
+    }
+
+    public void setRxSeq(String net, BigInteger rxSeq) {
+        rxSeq(net).set(rxSeq);
+    }
+
+    private Slot<BigInteger> txSeq(String net) {
+        Slot<BigInteger> slot = txSeqs.get(net);
+        if (slot == null) {
+            slot = new Slot<>(links.getTxSeq(net));
+            txSeqs.put(net, slot);
+        }
+        return slot;
+    }
+
+    public BigInteger getTxSeq(String net) {
+        return txSeq(net).value;
+    }
+
+    public void setTxSeq(String net, BigInteger txSeq) {
+        txSeq(net).set(txSeq);
+    }
+
+    private Slot<BigInteger> reward(Address addr, String net) {
+        Map<String, Slot<BigInteger>> map = rewardCache.get(addr);
+        if (map == null) {
+            map = new HashMap<>();
+            rewardCache.put(addr, map);
+        }
+        Slot<BigInteger> slot = map.get(net);
+        if (slot == null) {
+            slot = new Slot<>(rewards.at(addr).getOrDefault(net, BigInteger.ZERO));
+            map.put(net, slot);
+        }
+        return slot;
+    }
+
+    public BigInteger getReward(Address addr, String net) {
+        return reward(addr, net).value;
+    }
+
+    public void setReward(Address addr, String net, BigInteger amount) {
+        reward(addr, net).set(amount);
+    }
+
+    public FeeInfo getFee(String net) {
+        if (feeCache.containsKey(net)) {
+            return feeCache.get(net);
+        }
+        FeeInfo feeInfo = fees.get(net);
+        feeCache.put(net, feeInfo);
+        return feeInfo;
+    }
+
+    /**
+     * Writes modified values, and drops all of cached values.
+     */
+    public void flush() {
+        for (Map.Entry<String, Slot<BigInteger>> entry : rxSeqs.entrySet()) {
+            if (entry.getValue().dirty) {
+                links.setRxSeq(entry.getKey(), entry.getValue().value);
+            }
+        }
+        for (Map.Entry<String, Slot<BigInteger>> entry : txSeqs.entrySet()) {
+            if (entry.getValue().dirty) {
+                links.setTxSeq(entry.getKey(), entry.getValue().value);
+            }
+        }
+        for (Map.Entry<Address, Map<String, Slot<BigInteger>>> entry : rewardCache.entrySet()) {
+            DictDB<String, BigInteger> rewardDictDB = null;
+            for (Map.Entry<String, Slot<BigInteger>> reward : entry.getValue().entrySet()) {
+                if (reward.getValue().dirty) {
+                    if (rewardDictDB == null) {
+                        rewardDictDB = rewards.at(entry.getKey());
+                    }
+                    rewardDictDB.set(reward.getKey(), reward.getValue().value);
+                }
+            }
+        }
+        linkCache.clear();
+        rxSeqs.clear();
+        txSeqs.clear();
+        rewardCache.clear();
+        feeCache.clear();
+    }
+}
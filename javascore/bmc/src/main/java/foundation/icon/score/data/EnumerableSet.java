@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.score.data;
+
+import score.ArrayDB;
+import score.Context;
+import score.DictDB;
+import scorex.util.ArrayList;
+
+import java.util.List;
+
+/**
+ * Set of values which is stored as ArrayDB with reverse index(value => array index),
+ * so contains, add and remove cost constant number of storage accesses.
+ * Removing a value moves the last value to the index of removed value.
+ */
+public class EnumerableSet<V> {
+    protected final String id;
+    private final ArrayDB<V> entries;
+    private final DictDB<Object, Integer> indexes;
+    private final boolean supportedKeyType;
+
+    public EnumerableSet(String id, Class<V> valueClass) {
+        this(id, valueClass, Context.newArrayDB(id, valueClass), Context.newDictDB(id, Integer.class));
+    }
+
+    /**
+     * @param entries array of valueClass
+     * @param indexes value => array index
+     */
+    public EnumerableSet(String id, Class<V> valueClass, ArrayDB<V> entries, DictDB<Object, Integer> indexes) {
+        this.id = id;
+        supportedKeyType = EnumerableDictDB.isSupportedKeyType(valueClass);
+        this.entries = entries;
+        this.indexes = indexes;
+    }
+
+    private Object ensureKeyType(V value) {
+        return supportedKeyType ? value : value.toString();
+    }
+
+    private Integer getIndex(V value) {
+        return indexes.get(ensureKeyType(value));
+    }
+
+    private void setIndex(V value, Integer i) {
+        indexes.set(ensureKeyType(value), i);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public V at(int i) {
+        return entries.get(i);
+    }
+
+    public boolean contains(V value) {
+        return getIndex(value) != null;
+    }
+
+    public boolean add(V value) {
+        if (contains(value)) {
+            return false;
+        }
+        entries.add(value);
+        setIndex(value, entries.size() - 1);
+        return true;
+    }
+
+    public boolean remove(V value) {
+        Integer i = getIndex(value);
+        if (i == null) {
+            return false;
+        }
+        setIndex(value, null);
+        V last = entries.pop();
+        if (i != entries.size()) {
+            entries.set(i, last);
+            setIndex(last, i);
+        }
+        return true;
+    }
+
+    /**
+     * Sets indexes of values which are added to the array without index.
+     *
+     * @return the number of updated indexes
+     */
+    public int ensureIndexes() {
+        int cnt = 0;
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            V value = entries.get(i);
+            if (getIndex(value) == null) {
+                setIndex(value, i);
+                cnt++;
+            }
+        }
+        return cnt;
+    }
+
+    public void clear() {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            setIndex(entries.pop(), null);
+        }
+    }
+
+    public List<V> values() {
+        return range(0, size());
+    }
+
+    public List<V> range(int offset, int limit) {
+        ArrayList<V> values = new ArrayList<>();
+        int size = size();
+        int end = limit < size - offset ? offset + limit : size;
+        for (int i = offset; i < end; i++) {
+            values.add(entries.get(i));
+        }
+        return values;
+    }
+}
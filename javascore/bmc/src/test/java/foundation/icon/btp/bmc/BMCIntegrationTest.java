@@ -112,6 +112,20 @@ public interface BMCIntegrationTest extends BTPIntegrationTest {
                 consumer, null);
     }
 
+    static Consumer<TransactionResult> relayMessageDroppedEvent(
+            Consumer<ICONSpecificScoreClient.RelayMessageDropped> consumer) {
+        return eventLogChecker(
+                ICONSpecificScoreClient.RelayMessageDropped::eventLogs,
+                consumer, null);
+    }
+
+    static Consumer<TransactionResult> inboxMessageEvent(
+            Consumer<ICONSpecificScoreClient.InboxMessage> consumer) {
+        return eventLogChecker(
+                ICONSpecificScoreClient.InboxMessage::eventLogs,
+                consumer, null);
+    }
+
     static Consumer<TransactionResult> btpEvent(
             Consumer<List<BMCScoreClient.BTPEvent>> consumer) {
         return eventLogsChecker(
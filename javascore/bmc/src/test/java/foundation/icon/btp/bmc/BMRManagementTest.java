@@ -30,6 +30,7 @@ import org.junit.jupiter.api.TestInfo;
 
 import java.util.Arrays;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -119,6 +120,17 @@ public class BMRManagementTest implements BMCIntegrationTest {
                 BTPIntegrationTest.Faker.btpLink().toString(), address));
     }
 
+    @Test
+    void getRelaysPageShouldSuccess() {
+        addRelay(link, address);
+
+        Address[] relays = iconSpecific.getRelays(link);
+        Address[] page = iconSpecific.getRelaysPage(link, relays.length - 1, relays.length);
+        assertEquals(1, page.length);
+        assertEquals(relays[relays.length - 1], page[0]);
+        assertEquals(0, iconSpecific.getRelaysPage(link, relays.length, 1).length);
+    }
+
     @Disabled("readonly call revert test")
     @Test
     void getRelaysShouldRevertNotExistsLink() {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LazyBTPMessageTest {
+    static BTPMessage newBTPMessage(int payloadLen, FeeInfo feeInfo) {
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc("btp://0x1.icon/cx0000000000000000000000000000000000000001");
+        msg.setDst("btp://0x2.eth/0x0000000000000000000000000000000000000002");
+        msg.setSvc("svc");
+        msg.setSn(BigInteger.valueOf(payloadLen + 1));
+        byte[] payload = new byte[payloadLen];
+        for (int i = 0; i < payloadLen; i++) {
+            payload[i] = (byte) i;
+        }
+        msg.setPayload(payload);
+        msg.setNsn(BigInteger.valueOf(-1));
+        msg.setFeeInfo(feeInfo);
+        return msg;
+    }
+
+    static FeeInfo newFeeInfo(int n) {
+        BigInteger[] values = new BigInteger[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = BigInteger.valueOf(i + 1).shiftLeft(64);
+        }
+        return new FeeInfo("0x1.icon", values);
+    }
+
+    static Stream<Arguments> messages() {
+        return Stream.of(
+                Arguments.of(0, null),
+                Arguments.of(1, newFeeInfo(0)),
+                Arguments.of(40, newFeeInfo(1)),
+                Arguments.of(1024, newFeeInfo(2)),
+                Arguments.of(70000, newFeeInfo(3))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void toBytesWithoutChange(int payloadLen, FeeInfo feeInfo) {
+        BTPMessage msg = newBTPMessage(payloadLen, feeInfo);
+        byte[] bytes = msg.toBytes();
+        LazyBTPMessage lazy = LazyBTPMessage.fromBytes(bytes);
+        assertArrayEquals(bytes, lazy.toBytes());
+        assertArrayEquals(msg.getPayload(), lazy.getPayload());
+        assertArrayEquals(bytes, lazy.toBytes());
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void toBytesWithFeeInfoChange(int payloadLen, FeeInfo feeInfo) {
+        BTPMessage msg = newBTPMessage(payloadLen, feeInfo);
+        LazyBTPMessage lazy = LazyBTPMessage.fromBytes(msg.toBytes());
+
+        //replace FeeInfo
+        FeeInfo replaced = newFeeInfo(4);
+        msg.setFeeInfo(replaced);
+        lazy.setFeeInfo(replaced);
+        assertArrayEquals(msg.toBytes(), lazy.toBytes());
+
+        //modify values of FeeInfo in place, as BMC does while relaying
+        BigInteger[] values = replaced.getValues();
+        BigInteger[] shrunk = new BigInteger[values.length - 1];
+        System.arraycopy(values, 1, shrunk, 0, shrunk.length);
+        lazy.getFeeInfo().setValues(shrunk);
+        assertArrayEquals(msg.toBytes(), lazy.toBytes());
+
+        //remove FeeInfo
+        msg.setFeeInfo(null);
+        lazy.setFeeInfo(null);
+        assertArrayEquals(msg.toBytes(), lazy.toBytes());
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void toBytesWithFieldChange(int payloadLen, FeeInfo feeInfo) {
+        BTPMessage msg = newBTPMessage(payloadLen, feeInfo);
+        LazyBTPMessage lazy = LazyBTPMessage.fromBytes(msg.toBytes());
+        msg.setSn(msg.getSn().negate());
+        lazy.setSn(lazy.getSn().negate());
+        msg.setFeeInfo(newFeeInfo(1));
+        lazy.setFeeInfo(newFeeInfo(1));
+        byte[] expected = msg.toBytes();
+        assertArrayEquals(expected, lazy.toBytes());
+        BTPMessage decoded = BTPMessage.fromBytes(lazy.toBytes());
+        assertEquals(msg.getSn(), decoded.getSn());
+        assertArrayEquals(msg.getPayload(), decoded.getPayload());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmc;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import foundation.icon.btp.lib.BMCStatus;
+import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.mock.MockBMVImpl;
+import foundation.icon.score.data.EnumerableDictDB;
+import org.junit.jupiter.api.Test;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LinksMigrationTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final String NET = "0x1.icon";
+    static final BTPAddress LINK = BTPAddress.valueOf("btp://0x2.eth/0x0000000000000000000000000000000000000002");
+    static final BTPAddress SECOND_LINK = BTPAddress.valueOf("btp://0x5.eth/0x0000000000000000000000000000000000000005");
+    static final BTPAddress[] REACHABLE = new BTPAddress[]{
+            BTPAddress.valueOf("btp://0x3.bsc/0x0000000000000000000000000000000000000003"),
+            BTPAddress.valueOf("btp://0x4.hmny/0x0000000000000000000000000000000000000004")
+    };
+
+    /**
+     * Link which is serialized in legacy format [addr, rxSeq, txSeq, [reachable...]]
+     */
+    public static class LegacyLink {
+        final BTPAddress addr;
+        final BigInteger rxSeq;
+        final BigInteger txSeq;
+        final BTPAddress[] reachable;
+
+        LegacyLink(BTPAddress addr, BigInteger rxSeq, BigInteger txSeq, BTPAddress[] reachable) {
+            this.addr = addr;
+            this.rxSeq = rxSeq;
+            this.txSeq = txSeq;
+            this.reachable = reachable;
+        }
+
+        public static void writeObject(ObjectWriter writer, LegacyLink obj) {
+            writer.beginList(4);
+            writer.writeNullable(obj.addr);
+            writer.writeNullable(obj.rxSeq);
+            writer.writeNullable(obj.txSeq);
+            writer.beginNullableList(obj.reachable.length);
+            for (BTPAddress v : obj.reachable) {
+                writer.write(v);
+            }
+            writer.end();
+            writer.end();
+        }
+
+        public static LegacyLink readObject(ObjectReader reader) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * BMC which is deployed over the links stored by the previous version,
+     * the legacy links are written before the constructor of BTPMessageCenter.
+     */
+    public static class LegacyBMC extends BTPMessageCenter {
+        public LegacyBMC(String _net, String _link, BigInteger _rxSeq, BigInteger _txSeq) {
+            super(putLegacyLink(_net, _link, _rxSeq, _txSeq));
+        }
+
+        static String putLegacyLink(String _net, String _link, BigInteger _rxSeq, BigInteger _txSeq) {
+            BTPAddress link = BTPAddress.valueOf(_link);
+            new EnumerableDictDB<String, LegacyLink>("links", String.class, LegacyLink.class)
+                    .put(link.net(), new LegacyLink(link, _rxSeq, _txSeq, REACHABLE));
+            return _net;
+        }
+    }
+
+    /**
+     * BMC which is deployed over the links stored with reachable, but without ReachableRoutes.
+     */
+    public static class UnroutedBMC extends BTPMessageCenter {
+        public UnroutedBMC(String _net) {
+            super(putLinks(_net));
+        }
+
+        static String putLinks(String _net) {
+            Links links = new Links("links");
+            links.put(LINK.net(), newLink(LINK, REACHABLE));
+            links.put(SECOND_LINK.net(), newLink(SECOND_LINK, REACHABLE[0]));
+            return _net;
+        }
+
+        static Link newLink(BTPAddress addr, BTPAddress... reachable) {
+            Link link = new Link();
+            link.setAddr(addr);
+            link.setRxSeq(BigInteger.ZERO);
+            link.setTxSeq(BigInteger.ZERO);
+            link.setReachable(List.of(reachable));
+            return link;
+        }
+    }
+
+    @Test
+    void migrateLegacyLink() throws Exception {
+        BigInteger rxSeq = BigInteger.valueOf(10);
+        BigInteger txSeq = BigInteger.valueOf(20);
+        Score bmc = sm.deploy(owner, LegacyBMC.class, NET, LINK.toString(), rxSeq, txSeq);
+        Score bmv = sm.deploy(owner, MockBMVImpl.class);
+        bmc.invoke(owner, "addVerifier", LINK.net(), bmv.getAddress());
+
+        assertArrayEquals(new String[]{LINK.toString()}, (String[]) bmc.call("getLinks"));
+        BMCStatus status = (BMCStatus) bmc.call("getStatus", LINK.toString());
+        assertEquals(rxSeq, status.getRx_seq());
+        assertEquals(txSeq, status.getTx_seq());
+
+        Map<?, ?> routes = (Map<?, ?>) bmc.call("getRoutes");
+        assertEquals(REACHABLE.length, routes.size());
+        for (BTPAddress reachable : REACHABLE) {
+            assertEquals(LINK.net(), routes.get(reachable.net()));
+        }
+
+        //removing the migrated link should clear counters and reachable
+        bmc.invoke(owner, "removeLink", LINK.toString());
+        assertEquals(0, ((String[]) bmc.call("getLinks")).length);
+        assertEquals(0, ((Map<?, ?>) bmc.call("getRoutes")).size());
+    }
+
+    @Test
+    void rebuildReachableRoutes() throws Exception {
+        Score bmc = sm.deploy(owner, UnroutedBMC.class, NET);
+
+        Map<?, ?> routes = (Map<?, ?>) bmc.call("getRoutes");
+        assertEquals(REACHABLE.length, routes.size());
+        for (BTPAddress reachable : REACHABLE) {
+            assertEquals(LINK.net(), routes.get(reachable.net()));
+        }
+
+        //the other link which could reach is selected
+        bmc.invoke(owner, "removeLink", LINK.toString());
+        routes = (Map<?, ?>) bmc.call("getRoutes");
+        assertEquals(1, routes.size());
+        assertEquals(SECOND_LINK.net(), routes.get(REACHABLE[0].net()));
+    }
+}
@@ -16,14 +16,19 @@
 
 package foundation.icon.btp.bmc;
 
+import foundation.icon.btp.lib.BMCScoreClient;
+import foundation.icon.btp.lib.BMCStatus;
 import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.lib.BTPException;
+import foundation.icon.btp.mock.MockBSH;
+import foundation.icon.btp.mock.MockBSHScoreClient;
 import foundation.icon.btp.mock.MockRelayMessage;
 import foundation.icon.btp.test.AssertBTPException;
 import foundation.icon.btp.test.MockBMVIntegrationTest;
 import foundation.icon.btp.test.MockBSHIntegrationTest;
 import foundation.icon.jsonrpc.Address;
 import foundation.icon.jsonrpc.model.TransactionResult;
+import foundation.icon.score.test.ScoreIntegrationTest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -519,6 +524,244 @@ public class MessageTest implements BMCIntegrationTest {
                         mockRelayMessage(btpMessageForSuccess(link)).toBase64String()));
     }
 
+    @Test
+    void handleRelayMessageBytesShouldSuccess() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        iconSpecific.handleRelayMessageBytes(
+                rxSeqChecker(link).andThen(handleBTPMessageChecker(msg)),
+                link.toString(), mockRelayMessage(msg).toBytes());
+    }
+
+    @Test
+    void handleRelayMessageBytesShouldRevertUnauthorized() {
+        AssertBMCException.assertUnauthorized(() ->
+                iconSpecificWithTester.handleRelayMessageBytes(link.toString(),
+                        mockRelayMessage(btpMessageForSuccess(link)).toBytes()));
+    }
+
+    @Test
+    void handleRelayMessagesShouldDropFailedRelayMessage() {
+        MockRelayMessage failed = new MockRelayMessage();
+        failed.setRevertCode(1);
+        failed.setRevertMessage("handleRelayMessagesShouldDropFailedRelayMessage");
+        BTPException.BMV e = new BTPException.BMV(failed.getRevertCode(), failed.getRevertMessage());
+        BTPMessage msg = btpMessageForSuccess(link);
+        Consumer<TransactionResult> checker = BMCIntegrationTest.relayMessageDroppedEvent((el) -> {
+            assertEquals(link.toString(), el.get_prev());
+            assertEquals(e.getCode(), el.get_ecode());
+            assertEquals(e.getMessage(), el.get_emsg());
+        }).andThen(rxSeqChecker(link)).andThen(handleBTPMessageChecker(msg));
+        iconSpecific.handleRelayMessages(checker,
+                new String[]{link.toString(), link.toString()},
+                new byte[][]{failed.toBytes(), mockRelayMessage(msg).toBytes()});
+    }
+
+    static BTPMessage btpMessage(BTPAddress src, String svc, BigInteger sn) {
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc(src.net());
+        msg.setDst(btpAddress.net());
+        msg.setSvc(svc);
+        msg.setSn(sn);
+        msg.setPayload(Faker.btpLink().toBytes());
+        msg.setNsn(BigInteger.ONE);
+        msg.setFeeInfo(new FeeInfo(
+                btpAddress.net(), emptyFeeValues));
+        return msg;
+    }
+
+    static Consumer<TransactionResult> seqChecker(
+            final BTPAddress link, long rxCount, long txCount) {
+        BMCStatus status = bmc.getStatus(link.toString());
+        return (txr) -> {
+            BMCStatus after = bmc.getStatus(link.toString());
+            assertEquals(status.getRx_seq().add(BigInteger.valueOf(rxCount)), after.getRx_seq());
+            assertEquals(status.getTx_seq().add(BigInteger.valueOf(txCount)), after.getTx_seq());
+        };
+    }
+
+    @Test
+    void handleRelayMessageShouldKeepSeqWithErrorAndDrop() {
+        BTPMessage first = btpMessage(link, svc, BigInteger.ZERO);
+        BTPMessage error = btpMessage(link, Faker.btpService(), BigInteger.ONE);
+        BTPMessage drop = btpMessage(link, Faker.btpService(), BigInteger.ZERO);
+        BTPMessage last = btpMessage(link, svc, BigInteger.ZERO);
+        BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+        Consumer<TransactionResult> checker = seqChecker(link, 4, 1)
+                .andThen(responseMessageChecker(link, error, BMCException.notExistsBSH()))
+                .andThen(BMCIntegrationTest.messageDroppedEvent((el) -> {
+                    assertEquals(link.toString(), el.get_prev());
+                    assertEquals(rxSeq.add(BigInteger.valueOf(3)), el.get_seq());
+                    assertEqualsBTPMessage(drop, BTPMessage.fromBytes(el.get_msg()));
+                }))
+                .andThen(ScoreIntegrationTest.eventLogsChecker(
+                        MockBSHIntegrationTest.mockBSH._address(),
+                        MockBSHScoreClient.HandleBTPMessage::eventLogs,
+                        (l) -> {
+                            assertEquals(2, l.size());
+                            assertArrayEquals(first.getPayload(), l.get(0).get_msg());
+                            assertArrayEquals(last.getPayload(), l.get(1).get_msg());
+                        }));
+        bmc.handleRelayMessage(
+                checker,
+                link.toString(),
+                mockRelayMessage(first, error, drop, last).toBase64String());
+    }
+
+    @Test
+    void handleRelayMessageShouldKeepSeqIfBSHSendMessage() {
+        BTPMessage first = btpMessage(link, svc, BigInteger.ZERO);
+        BTPMessage second = btpMessage(link, svc, BigInteger.ZERO);
+        BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+        Consumer<TransactionResult> checker = seqChecker(link, 2, 2)
+                .andThen(BMCIntegrationTest.eventLogsChecker(
+                        BMCScoreClient.Message::eventLogs,
+                        (l) -> {
+                            assertEquals(2, l.size());
+                            for (int i = 0; i < l.size(); i++) {
+                                assertEquals(link.toString(), l.get(i).get_next());
+                                assertEquals(txSeq.add(BigInteger.valueOf(i + 1)), l.get(i).get_seq());
+                            }
+                        }, null));
+        MockBSHIntegrationTest.mockBSH.setReply(true);
+        try {
+            bmc.handleRelayMessage(
+                    checker,
+                    link.toString(),
+                    mockRelayMessage(first, second).toBase64String());
+        } finally {
+            MockBSHIntegrationTest.mockBSH.setReply(false);
+        }
+    }
+
+    static void setBatchMode(int mode) {
+        MockBSHIntegrationTest.mockBSH.setBatchMode(mode);
+        //BMC probes BatchBSH when the service is added, and caches the result
+        BSHManagementTest.removeService(svc);
+        BSHManagementTest.addService(svc, MockBSHIntegrationTest.mockBSH._address());
+    }
+
+    static Consumer<TransactionResult> batchErrorChecker(
+            final BTPMessage msg, final boolean batch) {
+        return BMCIntegrationTest.messageEvent((el) -> {
+            BTPMessage response = BTPMessage.fromBytes(el.get_msg());
+            assertEquals(msg.getSn().negate(), response.getSn());
+            ResponseMessage responseMsg = ResponseMessage.fromBytes(response.getPayload());
+            assertEquals(ResponseMessage.CODE_BSH_REVERT, responseMsg.getCode());
+            //error message of the result of handleBTPMessages
+            String emsg = responseMsg.getMsg();
+            assertEquals(batch, emsg != null && emsg.startsWith("fail to handleBTPMessages"));
+        }).andThen(btpEventChecker(msg.getSrc(), msg.getNsn(), link, BTPMessageCenter.Event.ERROR));
+    }
+
+    static void handleRelayMessageInBatch(boolean batch) {
+        BTPMessage first = btpMessage(link, svc, BigInteger.ZERO);
+        BTPMessage error = btpMessage(link, svc, BigInteger.TEN);
+        BTPMessage last = btpMessage(link, svc, BigInteger.ZERO);
+        Consumer<TransactionResult> checker = seqChecker(link, 3, 1)
+                .andThen(batchErrorChecker(error, batch))
+                .andThen(ScoreIntegrationTest.eventLogsChecker(
+                        MockBSHIntegrationTest.mockBSH._address(),
+                        MockBSHScoreClient.HandleBTPMessage::eventLogs,
+                        (l) -> {
+                            assertEquals(2, l.size());
+                            assertArrayEquals(first.getPayload(), l.get(0).get_msg());
+                            assertArrayEquals(last.getPayload(), l.get(1).get_msg());
+                        }));
+        MockBSHIntegrationTest.mockBSH.setErrorCode(error.getSn(), 1);
+        try {
+            bmc.handleRelayMessage(
+                    checker,
+                    link.toString(),
+                    mockRelayMessage(first, error, last).toBase64String());
+        } finally {
+            MockBSHIntegrationTest.mockBSH.setErrorCode(error.getSn(), 0);
+        }
+        //response of the failed message is already sent
+        AssertBMCException.assertUnknown(() ->
+                MockBSHIntegrationTest.mockBSH.sendMessage(
+                        bmc._address(), error.getSrc(), svc, error.getSn().negate(), error.getPayload()));
+    }
+
+    @Test
+    void handleRelayMessageShouldCallHandleBTPMessages() {
+        setBatchMode(MockBSH.BATCH_SUPPORTED);
+        handleRelayMessageInBatch(true);
+    }
+
+    @Test
+    void handleRelayMessageShouldCallHandleBTPMessageIfNotSupported() {
+        try {
+            setBatchMode(MockBSH.BATCH_UNSUPPORTED);
+            handleRelayMessageInBatch(false);
+
+            //result of probing is cached until the service is added again
+            MockBSHIntegrationTest.mockBSH.setBatchMode(MockBSH.BATCH_SUPPORTED);
+            handleRelayMessageInBatch(false);
+        } finally {
+            setBatchMode(MockBSH.BATCH_SUPPORTED);
+        }
+        handleRelayMessageInBatch(true);
+    }
+
+    @Test
+    void handleRelayMessageShouldCallHandleBTPMessageIfHandleBTPMessagesReverts() {
+        try {
+            setBatchMode(MockBSH.BATCH_REVERT);
+            handleRelayMessageInBatch(false);
+        } finally {
+            setBatchMode(MockBSH.BATCH_SUPPORTED);
+        }
+    }
+
+    @Test
+    void handleRelayMessageShouldCallHandleBTPMessageIfInvalidLengthOfResults() {
+        try {
+            setBatchMode(MockBSH.BATCH_INVALID_LENGTH);
+            handleRelayMessageInBatch(false);
+        } finally {
+            setBatchMode(MockBSH.BATCH_SUPPORTED);
+        }
+    }
+
+    @Test
+    void executeInboxShouldCallHandleBTPMessage() {
+        iconSpecific.setServiceInbox(svc, true);
+        assertTrue(iconSpecific.getServiceInbox(svc));
+        BTPMessage msg = btpMessageForSuccess(link);
+        BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+        Consumer<TransactionResult> checker = BMCIntegrationTest.inboxMessageEvent((el) -> {
+            assertEquals(svc, el.get_svc());
+            assertEquals(link.toString(), el.get_prev());
+            assertEquals(rxSeq.add(BigInteger.ONE), el.get_seq());
+        }).andThen(ScoreIntegrationTest.eventLogShouldNotExistsChecker(
+                MockBSHIntegrationTest.mockBSH._address(), MockBSHScoreClient.HandleBTPMessage::eventLogs));
+        bmc.handleRelayMessage(checker, link.toString(), mockRelayMessage(msg).toBase64String());
+        assertEquals(BigInteger.ONE, iconSpecific.getInboxSize(svc));
+
+        iconSpecific.setServiceInbox(svc, false);
+        iconSpecific.executeInbox(handleBTPMessageChecker(msg), svc, 1);
+        assertEquals(BigInteger.ZERO, iconSpecific.getInboxSize(svc));
+        AssertBMCException.assertUnknown(() -> iconSpecific.executeInbox(svc, 1));
+    }
+
+    @Test
+    void executeInboxShouldRevertNotExistsBSH() {
+        iconSpecific.setServiceInbox(svc, true);
+        BTPMessage msg = btpMessageForSuccess(link);
+        bmc.handleRelayMessage(link.toString(), mockRelayMessage(msg).toBase64String());
+        assertEquals(BigInteger.ONE, iconSpecific.getInboxSize(svc));
+
+        BSHManagementTest.removeService(svc);
+        try {
+            AssertBMCException.assertNotExistsBSH(() -> iconSpecific.executeInbox(svc, 1));
+            assertEquals(BigInteger.ONE, iconSpecific.getInboxSize(svc));
+        } finally {
+            BSHManagementTest.addService(svc, MockBSHIntegrationTest.mockBSH._address());
+        }
+        iconSpecific.executeInbox(handleBTPMessageChecker(msg), svc, 1);
+        assertEquals(BigInteger.ZERO, iconSpecific.getInboxSize(svc));
+    }
+
     static String[] fragments(byte[] bytes, int count) {
         int len = bytes.length;
         if (len < count || count < 1) {
@@ -567,6 +810,42 @@ public class MessageTest implements BMCIntegrationTest {
         }
     }
 
+    @Test
+    void handleFragmentShouldSupersede() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        String[] fragments = fragments(mockRelayMessage(msg).toBytes(), 2);
+        iconSpecific.handleFragment(link.toString(), fragments[0], -2);
+        iconSpecific.handleFragment(link.toString(), fragments[0], -1);
+        AssertBMCException.assertUnknown(() ->
+                iconSpecific.handleFragment(link.toString(), fragments[1], 1));
+        iconSpecific.handleFragment(
+                handleBTPMessageChecker(msg),
+                link.toString(), fragments[1], 0);
+        AssertBMCException.assertUnknown(() ->
+                iconSpecific.handleFragment(link.toString(), fragments[1], 0));
+    }
+
+    @Test
+    void handleFragmentBytes() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        byte[] bytes = mockRelayMessage(msg).toBytes();
+        int count = 3;
+        int last = count - 1;
+        String[] fragments = fragments(bytes, count);
+        for (int i = 0; i < count; i++) {
+            byte[] fragment = Base64.getUrlDecoder().decode(fragments[i]);
+            if (i == 0) {
+                iconSpecific.handleFragmentBytes(link.toString(), fragment, -1 * last);
+            } else if (i == last) {
+                iconSpecific.handleFragmentBytes(
+                        handleBTPMessageChecker(msg),
+                        link.toString(), fragment, 0);
+            } else {
+                iconSpecific.handleFragmentBytes(link.toString(), fragment, last - i);
+            }
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("dropMessageShouldSuccessArguments")
     void dropMessageShouldSuccess(
@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class RewardTest implements BMCIntegrationTest {
@@ -326,6 +327,28 @@ public class RewardTest implements BMCIntegrationTest {
                 link.toString(), MessageTest.mockRelayMessage(msg).toBase64String());
     }
 
+    @Test
+    void handleRelayMessageShouldAccumulateRewardOfMessages() {
+        BigInteger fee = BigInteger.ONE;
+        BigInteger remain = BigInteger.TWO;
+        BTPMessage first = btpMessageForReward(link.net(), new BigInteger[]{fee, remain});
+        BTPMessage drop = btpMessageForReward(link.net(), new BigInteger[]{fee, remain});
+        drop.setSvc(Faker.btpService());
+        BTPMessage last = btpMessageForReward(link.net(), new BigInteger[]{fee, remain});
+        BigInteger count = BigInteger.valueOf(3);
+        BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+        BigInteger[] feeTable = bmc.getFeeTable(new String[]{link.net()})[0];
+        Consumer<TransactionResult> checker = rewardChecker(link.net(), relay, fee.multiply(count))
+                .andThen(rewardChecker(link.net(), bmc._address(), remain.multiply(count)))
+                .andThen((txr) -> {
+                    assertEquals(rxSeq.add(count), bmc.getStatus(link.toString()).getRx_seq());
+                    assertArrayEquals(feeTable, bmc.getFeeTable(new String[]{link.net()})[0]);
+                });
+        bmc.handleRelayMessage(
+                checker,
+                link.toString(), MessageTest.mockRelayMessage(first, drop, last).toBase64String());
+    }
+
     @SuppressWarnings("ThrowableNotThrown")
     @ParameterizedTest
     @MethodSource("claimRewardShouldRevertArguments")
@@ -26,12 +26,16 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import java.math.BigInteger;
+
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RouteManagementTest implements BMCIntegrationTest {
     static BTPAddress link = BTPIntegrationTest.Faker.btpLink();
     static String dst = BTPIntegrationTest.Faker.btpNetwork();
+    static BTPAddress secondLink = BTPIntegrationTest.Faker.btpLink();
+    static Address relay = bmc._wallet().getAddress();
 
     @SuppressWarnings("unchecked")
     static boolean isExistsRoute(String dst, String link) {
@@ -66,17 +70,45 @@ public class RouteManagementTest implements BMCIntegrationTest {
         Address mockBMVAddress = MockBMVIntegrationTest.mockBMV._address();
         BMVManagementTest.addVerifier(link.net(), mockBMVAddress);
         LinkManagementTest.addLink(link.toString());
+        BMRManagementTest.addRelay(link.toString(), relay);
+        BMVManagementTest.addVerifier(secondLink.net(), mockBMVAddress);
+        LinkManagementTest.addLink(secondLink.toString());
+        BMRManagementTest.addRelay(secondLink.toString(), relay);
         System.out.println("RouteManagementTest:beforeAll end");
     }
 
     @AfterAll
     static void afterAll() {
         System.out.println("RouteManagementTest:afterAll start");
+        BMRManagementTest.clearRelay(link.toString(), relay);
         LinkManagementTest.clearLink(link.toString());
         BMVManagementTest.clearVerifier(link.net());
+        BMRManagementTest.clearRelay(secondLink.toString(), relay);
+        LinkManagementTest.clearLink(secondLink.toString());
+        BMVManagementTest.clearVerifier(secondLink.net());
         System.out.println("RouteManagementTest:afterAll end");
     }
 
+    static void handleInternalMessage(BTPAddress link, BTPMessageCenter.Internal internal, byte[] payload) {
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc(link.net());
+        msg.setDst(btpAddress.net());
+        msg.setSvc(BTPMessageCenter.INTERNAL_SERVICE);
+        msg.setSn(BigInteger.ZERO);
+        msg.setPayload(new BMCMessage(internal.name(), payload).toBytes());
+        msg.setNsn(BigInteger.ONE);
+        msg.setFeeInfo(null);
+        bmc.handleRelayMessage(link.toString(), MessageTest.mockRelayMessage(msg).toBase64String());
+    }
+
+    static void addReachable(BTPAddress link, BTPAddress reachable) {
+        handleInternalMessage(link, BTPMessageCenter.Internal.Link, new LinkMessage(reachable).toBytes());
+    }
+
+    static void removeReachable(BTPAddress link, BTPAddress reachable) {
+        handleInternalMessage(link, BTPMessageCenter.Internal.Unlink, new UnlinkMessage(reachable).toBytes());
+    }
+
     @Override
     public void clearIfExists(TestInfo testInfo) {
         clearRoute(dst);
@@ -119,4 +151,57 @@ public class RouteManagementTest implements BMCIntegrationTest {
         AssertBMCException.assertUnknown(() -> LinkManagementTest.removeLink(link.toString()));
     }
 
+    @Test
+    void reachableShouldBeRouted() {
+        BTPAddress reachable = Faker.btpLink();
+        addReachable(link, reachable);
+        assertTrue(isExistsRoute(reachable.net(), link.net()));
+
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc(secondLink.net());
+        msg.setDst(reachable.net());
+        msg.setSvc(MessageTest.svc);
+        msg.setSn(BigInteger.ZERO);
+        msg.setPayload(Faker.btpLink().toBytes());
+        msg.setNsn(BigInteger.ONE);
+        msg.setFeeInfo(new FeeInfo(secondLink.net(), new BigInteger[]{}));
+        bmc.handleRelayMessage(
+                MessageTest.routeChecker(link, msg),
+                secondLink.toString(),
+                MessageTest.mockRelayMessage(msg).toBase64String());
+    }
+
+    @Test
+    void reachableShouldBeRoutedToAnotherLinkIfUnlink() {
+        BTPAddress reachable = Faker.btpLink();
+        addReachable(link, reachable);
+        addReachable(secondLink, reachable);
+        assertTrue(isExistsRoute(reachable.net(), link.net()));
+
+        removeReachable(link, reachable);
+        assertTrue(isExistsRoute(reachable.net(), secondLink.net()));
+
+        removeReachable(secondLink, reachable);
+        assertFalse(isExistsRoute(reachable.net()));
+    }
+
+    @Test
+    void reachableShouldBeRoutedToAnotherLinkIfRemoveLink() {
+        BTPAddress thirdLink = Faker.btpLink();
+        BMVManagementTest.addVerifier(thirdLink.net(), MockBMVIntegrationTest.mockBMV._address());
+        LinkManagementTest.addLink(thirdLink.toString());
+        BMRManagementTest.addRelay(thirdLink.toString(), relay);
+        try {
+            BTPAddress reachable = Faker.btpLink();
+            addReachable(thirdLink, reachable);
+            addReachable(secondLink, reachable);
+            assertTrue(isExistsRoute(reachable.net(), thirdLink.net()));
+
+            LinkManagementTest.removeLink(thirdLink.toString());
+            assertTrue(isExistsRoute(reachable.net(), secondLink.net()));
+        } finally {
+            LinkManagementTest.clearLink(thirdLink.toString());
+            BMVManagementTest.clearVerifier(thirdLink.net());
+        }
+    }
 }
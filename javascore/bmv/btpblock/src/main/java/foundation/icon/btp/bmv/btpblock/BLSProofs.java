@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmv.btpblock;
+
+import score.Context;
+import score.ObjectReader;
+
+/**
+ * Proofs for ProofContext of BLS public keys, an aggregated signature(bls12-381-g2) of signers
+ * and the bitmap of signers, the validator at slot i is signer if (signers[i/8] >> (i%8)) & 1 == 1.
+ */
+public class BLSProofs {
+    private byte[] signature;
+    private byte[] signers;
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    public void setSignature(byte[] signature) {
+        this.signature = signature;
+    }
+
+    public byte[] getSigners() {
+        return signers;
+    }
+
+    public void setSigners(byte[] signers) {
+        this.signers = signers;
+    }
+
+    public boolean isSigner(int slot) {
+        return ((signers[slot / 8] >> (slot % 8)) & 1) == 1;
+    }
+
+    public static BLSProofs readObject(ObjectReader r) {
+        r.beginList();
+        BLSProofs obj = new BLSProofs();
+        obj.setSignature(r.readByteArray());
+        obj.setSigners(r.readByteArray());
+        r.end();
+        return obj;
+    }
+
+    public static BLSProofs fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return BLSProofs.readObject(reader);
+    }
+}
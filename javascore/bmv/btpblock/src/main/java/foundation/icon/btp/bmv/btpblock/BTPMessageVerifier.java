@@ -35,7 +35,10 @@ public class BTPMessageVerifier implements BMV {
     private static final Logger logger = Logger.getLogger(BTPMessageVerifier.class);
     private static String HASH = "keccak-256";
     private static String SIGNATURE_ALG = "ecdsa-secp256k1";
+    private static String BLS_SIGNATURE_ALG = "bls12-381-g2";
+    private static String BLS_PUBLIC_KEY_TYPE = "bls12-381-g1";
     private final VarDB<BMVProperties> propertiesDB = Context.newVarDB("properties", BMVProperties.class);
+    private final ProofContextIndex proofContextIndex = new ProofContextIndex("proofContext");
 
     public BTPMessageVerifier(String srcNetworkID, int networkTypeID, Address bmc, byte[] blockHeader, BigInteger seqOffset) {
         BMVProperties bmvProperties = getProperties();
@@ -54,27 +57,32 @@ public class BTPMessageVerifier implements BMV {
     public byte[][] handleRelayMessage(String _bmc, String _prev, BigInteger _seq, byte[] _msg) {
         BTPAddress curAddr = BTPAddress.valueOf(_bmc);
         BTPAddress prevAddr = BTPAddress.valueOf(_prev);
-        checkAccessible(curAddr, prevAddr);
+        //properties are loaded once, and written once after all messages are handled
         var bmvProperties = getProperties();
+        checkAccessible(curAddr, prevAddr, bmvProperties);
         var lastSeq = bmvProperties.getLastSequence();
         var seq = bmvProperties.getSequenceOffset().add(lastSeq);
         if (seq.compareTo(_seq) != 0) throw BMVException.unknown("invalid sequence");
         RelayMessage relayMessages = RelayMessage.fromBytes(_msg);
         RelayMessage.TypePrefixedMessage[] typePrefixedMessages = relayMessages.getMessages();
         BlockUpdate blockUpdate = null;
+        //whether the last BlockUpdate is not verified by proof yet
+        boolean unverified = false;
         List<byte[]> msgList = new ArrayList<>();
         for (RelayMessage.TypePrefixedMessage message : typePrefixedMessages) {
             Object msg = message.getMessage();
             if (msg instanceof BlockUpdate) {
                 blockUpdate = (BlockUpdate) msg;
-                handleBlockUpdateMessage(blockUpdate);
+                unverified = !handleBlockUpdateMessage(blockUpdate, bmvProperties);
             } else if (msg instanceof MessageProof) {
-                var msgs = handleMessageProof((MessageProof) msg, blockUpdate);
+                var msgs = handleMessageProof((MessageProof) msg, blockUpdate, bmvProperties);
                 for(byte[] m : msgs) {
                     msgList.add(m);
                 }
             }
         }
+        if (unverified) throw BMVException.unknown("not exists proof of last blockUpdate");
+        propertiesDB.set(bmvProperties);
         var retSize = msgList.size();
         var ret = new byte[retSize][];
         if (retSize > 0) {
@@ -128,8 +136,14 @@ public class BTPMessageVerifier implements BMV {
         propertiesDB.set(bmvProperties);
     }
 
-    private void handleBlockUpdateMessage(BlockUpdate blockUpdate) {
-        var bmvProperties = propertiesDB.get();
+    /**
+     * Handles BlockUpdate, proof could be omitted for catch-up except the BlockUpdate which updates ProofContext.
+     * NetworkSection of the BlockUpdate without proof is verified by prev of the following NetworkSection,
+     * so the last BlockUpdate in the RelayMessage must have proof.
+     *
+     * @return true if the BlockUpdate is verified by proof
+     */
+    private boolean handleBlockUpdateMessage(BlockUpdate blockUpdate, BMVProperties bmvProperties) {
         var networkID = bmvProperties.getNetworkID();
         var blockHeader = blockUpdate.getBlockHeader();
         var updateNumber = blockHeader.getUpdateNumber();
@@ -155,19 +169,23 @@ public class BTPMessageVerifier implements BMV {
                 blockHeader.getMessageRoot()
         );
         var nsHash = ns.hash();
-        var nsRoot = blockHeader.getNetworkSectionsRoot(nsHash);
-        var nextProofContextHash = blockHeader.getNextProofContextHash();
-        NetworkTypeSection nts = new NetworkTypeSection(nextProofContextHash, nsRoot);
-        var srcNetworkID = bmvProperties.getSrcNetworkID();
-        var networkTypeID = bmvProperties.getNetworkTypeID();
-        var height = blockHeader.getMainHeight();
-        var round = blockHeader.getRound();
-        var ntsHash = nts.hash();
-        NetworkTypeSectionDecision decision = new NetworkTypeSectionDecision(
-                srcNetworkID, networkTypeID, height.longValue(), round.intValue(), ntsHash);
-        Proofs proofs = Proofs.fromBytes(blockUpdate.getBlockProof());
         var isUpdate = updateNumber.and(BigInteger.ONE).compareTo(BigInteger.ONE) == 0;
-        verifyProof(decision, proofs);
+        var blockProof = blockUpdate.getBlockProof();
+        if (isUpdate && blockProof == null) throw BMVException.unknown("not exists proof of proofContext update");
+        var verified = blockProof != null;
+        var nextProofContextHash = blockHeader.getNextProofContextHash();
+        if (verified) {
+            var nsRoot = blockHeader.getNetworkSectionsRoot(nsHash);
+            NetworkTypeSection nts = new NetworkTypeSection(nextProofContextHash, nsRoot);
+            var srcNetworkID = bmvProperties.getSrcNetworkID();
+            var networkTypeID = bmvProperties.getNetworkTypeID();
+            var height = blockHeader.getMainHeight();
+            var round = blockHeader.getRound();
+            var ntsHash = nts.hash();
+            NetworkTypeSectionDecision decision = new NetworkTypeSectionDecision(
+                    srcNetworkID, networkTypeID, height.longValue(), round.intValue(), ntsHash);
+            verifyProof(decision, blockProof, bmvProperties);
+        }
         if (isUpdate) {
             var nextProofContext = blockHeader.getNextProofContext();
             verifyProofContextData(nextProofContextHash, nextProofContext, bmvProperties.getProofContextHash());
@@ -179,7 +197,7 @@ public class BTPMessageVerifier implements BMV {
         bmvProperties.setLastFirstMessageSN(blockHeader.getFirstMessageSn());
         bmvProperties.setLastNetworkSectionHash(nsHash);
         bmvProperties.setHeight(blockHeader.getMainHeight());
-        propertiesDB.set(bmvProperties);
+        return verified;
     }
 
     private void verifyProofContextData(byte[] proofContextHash, byte[] proofContext, byte[] currentProofContextHash) {
@@ -187,30 +205,66 @@ public class BTPMessageVerifier implements BMV {
         if (!Arrays.equals(hash(proofContext), proofContextHash)) throw BMVException.unknown("mismatch Hash of NextProofContext");
     }
 
-    private void verifyProof(NetworkTypeSectionDecision decision, Proofs proofs) {
+    private void verifyProof(NetworkTypeSectionDecision decision, byte[] blockProof, BMVProperties bmvProperties) {
         byte[] decisionHash = decision.hash();
-        byte[][] sigs = proofs.getProofs();
-        List<EthAddress> verifiedValidator = new ArrayList<>();
-        var bmvProperties = propertiesDB.get();
-        var proofContextBytes = bmvProperties.getProofContext();
-        var proofContext = ProofContext.fromBytes(proofContextBytes);
+        proofContextIndex.ensure(bmvProperties.getProofContextHash(), bmvProperties.getProofContext());
+        if (proofContextIndex.isBLS()) {
+            verifyBLSProof(decisionHash, BLSProofs.fromBytes(blockProof));
+            return;
+        }
+        byte[][] sigs = Proofs.fromBytes(blockProof).getProofs();
+        var validatorsCnt = proofContextIndex.size();
+        //quorum = validator * 2/3
+        var quorum = validatorsCnt * 2 / 3 + 1;
+        long[] verifiedValidator = new long[(validatorsCnt + 63) / 64];
+        var verified = 0;
         for (byte[] sig : sigs) {
             EthAddress address = recoverAddress(decisionHash, sig);
-            if (!proofContext.isValidator(address)) throw BMVException.unknown("invalid validator : " + address);
-            if (verifiedValidator.contains(address)) throw BMVException.unknown("duplicated validator : " + address);
-            verifiedValidator.add(address);
+            var slot = proofContextIndex.slotOf(address);
+            if (slot < 0) throw BMVException.unknown("invalid validator : " + address);
+            long bit = 1L << (slot % 64);
+            if ((verifiedValidator[slot / 64] & bit) != 0) throw BMVException.unknown("duplicated validator : " + address);
+            verifiedValidator[slot / 64] |= bit;
+            //remained proofs are not verified
+            if (++verified >= quorum) return;
+        }
+        throw BMVException.unknown("not enough proof parts num of validator : " + validatorsCnt + ", num of proof parts : " + verified);
+    }
+
+    /**
+     * Verifies the aggregated signature with the aggregated public key of signers,
+     * so that the cost doesn't depend on the number of signatures.
+     */
+    private void verifyBLSProof(byte[] decisionHash, BLSProofs proofs) {
+        var validatorsCnt = proofContextIndex.size();
+        byte[] signers = proofs.getSigners();
+        if (signers.length != (validatorsCnt + 7) / 8) throw BMVException.unknown("invalid length of signers");
+        var verified = 0;
+        for (int i = 0; i < signers.length * 8; i++) {
+            if (proofs.isSigner(i)) {
+                if (i >= validatorsCnt) throw BMVException.unknown("invalid signer : " + i);
+                verified++;
+            }
         }
-        var verified = verifiedValidator.size();
-        var validatorsCnt = proofContext.getValidators().length;
         //quorum = validator * 2/3
         if (verified * 3 <= validatorsCnt * 2)
-                throw BMVException.unknown("not enough proof parts num of validator : " + validatorsCnt + ", num of proof parts : " + verified);
+            throw BMVException.unknown("not enough proof parts num of validator : " + validatorsCnt + ", num of proof parts : " + verified);
+        byte[] publicKeys = new byte[verified * ProofContext.BLS_PUBLIC_KEY_LEN];
+        int pos = 0;
+        for (int i = 0; i < validatorsCnt; i++) {
+            if (proofs.isSigner(i)) {
+                System.arraycopy(proofContextIndex.keyAt(i), 0, publicKeys, pos, ProofContext.BLS_PUBLIC_KEY_LEN);
+                pos += ProofContext.BLS_PUBLIC_KEY_LEN;
+            }
+        }
+        byte[] aggregatedPublicKey = Context.aggregate(BLS_PUBLIC_KEY_TYPE, null, publicKeys);
+        if (!Context.verifySignature(BLS_SIGNATURE_ALG, decisionHash, proofs.getSignature(), aggregatedPublicKey))
+            throw BMVException.unknown("invalid aggregated signature");
     }
 
-    private byte[][] handleMessageProof(MessageProof messageProof, BlockUpdate blockUpdate) {
+    private byte[][] handleMessageProof(MessageProof messageProof, BlockUpdate blockUpdate, BMVProperties bmvProperties) {
         byte[] expectedMessageRoot;
         BigInteger expectedMessageCnt;
-        var bmvProperties = propertiesDB.get();
         if (bmvProperties.getRemainMessageCount().compareTo(BigInteger.ZERO) <= 0)
             throw BMVException.unknown("remaining message count must greater than zero");
         MessageProof.ProveResult result = messageProof.proveMessage();
@@ -248,7 +302,6 @@ public class BTPMessageVerifier implements BMV {
             bmvProperties.setLastMessagesRoot(null);
         }
         bmvProperties.setLastSequence(bmvProperties.getLastSequence().add(BigInteger.valueOf(msgCnt)));
-        propertiesDB.set(bmvProperties);
         return messageProof.getMessages();
     }
 
@@ -267,8 +320,7 @@ public class BTPMessageVerifier implements BMV {
         return new EthAddress(addr);
     }
 
-    private void checkAccessible(BTPAddress curAddr, BTPAddress fromAddress) {
-        BMVProperties properties = getProperties();
+    private void checkAccessible(BTPAddress curAddr, BTPAddress fromAddress, BMVProperties properties) {
         if (!properties.getNetwork().equals(fromAddress.net())) {
             throw BMVException.unknown("invalid prev bmc");
         } else if (!Context.getCaller().equals(properties.getBmc())) {
@@ -30,6 +30,10 @@ public class EthAddress {
         this.data = data;
     }
 
+    public byte[] toBytes() {
+        return data;
+    }
+
     public static EthAddress readObject(ObjectReader r) {
         return new EthAddress(r.readByteArray());
     }
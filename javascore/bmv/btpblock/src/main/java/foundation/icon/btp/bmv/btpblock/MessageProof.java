@@ -93,32 +93,107 @@ public class MessageProof {
     }
 
     public ProveResult proveMessage() {
-        Node node = new Node();
-        int left = 0, total = 0;
+        Accumulator acc = new Accumulator();
         for (ProofNode pn : leftProofNodes) {
-            var num = pn.getNumOfLeaf();
-            node = node.add(num, pn.getValue());
-            left += num;
+            acc.add(pn.getNumOfLeaf(), pn.getValue());
         }
-
+        int left = acc.getTotal();
         for (byte[] message : messages) {
-            node = node.add(1, BTPMessageVerifier.hash(message));
-            total++;
+            acc.add(1, BTPMessageVerifier.hash(message));
         }
-
         for (ProofNode pn : rightProofNodes) {
-            var num = pn.getNumOfLeaf();
-            node = node.add(num, pn.getValue());
-            total += num;
-        }
-        node.ensureHash(false);
-
-        total += left;
-        var rootNumOfLeaf = node.getNumOfLeaf();
-        if (total != rootNumOfLeaf)
-            throw BMVException.unknown("total doesn't match total : " + total + ", node : " + rootNumOfLeaf);
-        node.verify();
-        return new ProveResult(node.getValue(), left, total);
+            acc.add(pn.getNumOfLeaf(), pn.getValue());
+        }
+        return new ProveResult(acc.root(), left, acc.getTotal());
+    }
+
+    /**
+     * Calculates the root of message tree with subtrees which are added from left to right.
+     * It keeps the stack of perfect subtrees whose numbers of leaves are decreasing,
+     * the last two subtrees are merged if they have the same number of leaves.
+     * Only the last subtree could be not perfect, and the number of leaves must be less than the previous.
+     */
+    static class Accumulator {
+        private static final int HASH_LEN = 32;
+        private static final int MAX_DEPTH = 32;
+        private final byte[][] hashes = new byte[MAX_DEPTH][];
+        private final int[] numOfLeaves = new int[MAX_DEPTH];
+        //input of concatAndHash
+        private final byte[] buffer = new byte[HASH_LEN * 2];
+        private int size;
+        private int total;
+        private boolean closed;
+
+        int getTotal() {
+            return total;
+        }
+
+        void add(int numOfLeaf, byte[] hash) {
+            if (numOfLeaf < 1) {
+                throw BMVException.unknown("invalid numOfLeaf, value : " + numOfLeaf);
+            }
+            if (hash == null || hash.length != HASH_LEN) {
+                throw BMVException.unknown("invalid hash of ProofNode");
+            }
+            if (closed) {
+                var last = numOfLeaves[size - 1];
+                throw BMVException.unknown("invalid numOfLeaf, expected : " + perfectNumOfLeaf(last) + ", value : " + last);
+            }
+            if (size > 0 && numOfLeaves[size - 1] < numOfLeaf) {
+                throw BMVException.unknown("invalid level left : " + numberToLevel(numOfLeaves[size - 1]) +
+                        " right : " + numberToLevel(numOfLeaf));
+            }
+            hashes[size] = hash;
+            numOfLeaves[size] = numOfLeaf;
+            size++;
+            total += numOfLeaf;
+            if (perfectNumOfLeaf(numOfLeaf) != numOfLeaf) {
+                closed = true;
+                return;
+            }
+            while (size > 1 && numOfLeaves[size - 2] == numOfLeaves[size - 1]) {
+                size--;
+                hashes[size - 1] = concatAndHash(hashes[size - 1], hashes[size]);
+                numOfLeaves[size - 1] += numOfLeaves[size];
+                hashes[size] = null;
+            }
+        }
+
+        byte[] root() {
+            if (size == 0) {
+                return null;
+            }
+            byte[] hash = hashes[size - 1];
+            for (int i = size - 2; i >= 0; i--) {
+                hash = concatAndHash(hashes[i], hash);
+            }
+            return hash;
+        }
+
+        private byte[] concatAndHash(byte[] b1, byte[] b2) {
+            System.arraycopy(b1, 0, buffer, 0, HASH_LEN);
+            System.arraycopy(b2, 0, buffer, HASH_LEN, HASH_LEN);
+            return BTPMessageVerifier.hash(buffer);
+        }
+
+        /**
+         * Returns the number of leaves of the perfect subtree which could have n leaves
+         */
+        private static int perfectNumOfLeaf(int n) {
+            int v = 1;
+            while (v > 0 && v < n) {
+                v <<= 1;
+            }
+            return v;
+        }
+
+        private static int numberToLevel(int n) {
+            int l = 1;
+            for (int v = 1; v > 0 && v < n; v <<= 1) {
+                l++;
+            }
+            return l;
+        }
     }
 
     public static class ProveResult {
@@ -22,38 +22,57 @@ import scorex.util.ArrayList;
 
 import java.util.List;
 
+/**
+ * ProofContext has validators as EthAddress for ecdsa-secp256k1 signatures,
+ * or BLS public keys(bls12-381-g1, 48 bytes) for an aggregated signature of {@link BLSProofs}.
+ */
 public class ProofContext {
+    public static final int BLS_PUBLIC_KEY_LEN = 48;
     private EthAddress[] validators;
+    private byte[][] publicKeys;
 
     public ProofContext(EthAddress[] validators) {
         this.validators = validators;
     }
 
+    public ProofContext(byte[][] publicKeys) {
+        this.publicKeys = publicKeys;
+    }
+
     public EthAddress[] getValidators() {
         return validators;
     }
 
-    public boolean isValidator(EthAddress address) {
-        for (EthAddress addr : validators) {
-            if (addr.equals(address)) return true;
-        }
-        return false;
+    public byte[][] getPublicKeys() {
+        return publicKeys;
+    }
+
+    public boolean isBLS() {
+        return publicKeys != null;
     }
 
     public static ProofContext readObject(ObjectReader reader) {
         reader.beginList();
-        List<EthAddress> addressList = new ArrayList<>();
+        List<byte[]> keyList = new ArrayList<>();
         reader.beginList();
         while(reader.hasNext()) {
-            addressList.add(reader.read(EthAddress.class));
+            keyList.add(reader.readByteArray());
         }
         reader.end();
-        int len = addressList.size();
+        reader.end();
+        int len = keyList.size();
+        if (len > 0 && keyList.get(0).length == BLS_PUBLIC_KEY_LEN) {
+            byte[][] publicKeys = new byte[len][];
+            for (int i = 0; i < len; i++) {
+                publicKeys[i] = keyList.get(i);
+                if (publicKeys[i].length != BLS_PUBLIC_KEY_LEN) throw BMVException.unknown("invalid public key length");
+            }
+            return new ProofContext(publicKeys);
+        }
         EthAddress[] addresses = new EthAddress[len];
         for (int i = 0; i < len; i++) {
-            addresses[i] = addressList.get(i);
+            addresses[i] = new EthAddress(keyList.get(i));
         }
-        reader.end();
         return new ProofContext(addresses);
     }
 
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.btpblock;
+
+import score.ArrayDB;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+
+import java.util.Arrays;
+
+/**
+ * Index of validators of the current ProofContext, key => slot of the validator.
+ * Key is the address of the validator, or the public key if ProofContext is for BLS.
+ * It's identified by the hash of ProofContext, and rebuilt only when ProofContext is changed.
+ */
+public class ProofContextIndex {
+    private final VarDB<byte[]> hash;
+    private final VarDB<Boolean> bls;
+    private final ArrayDB<byte[]> keys;
+    private final DictDB<byte[], Integer> slots;
+
+    public ProofContextIndex(String id) {
+        this.hash = Context.newVarDB(id + "|hash", byte[].class);
+        this.bls = Context.newVarDB(id + "|bls", Boolean.class);
+        this.keys = Context.newArrayDB(id + "|keys", byte[].class);
+        this.slots = Context.newDictDB(id + "|slots", Integer.class);
+    }
+
+    /**
+     * Rebuilds the index if it's not for the proofContext.
+     *
+     * @param proofContextHash hash of proofContext which is already verified
+     * @param proofContext serialized bytes of ProofContext
+     */
+    public void ensure(byte[] proofContextHash, byte[] proofContext) {
+        if (Arrays.equals(hash.get(), proofContextHash)) {
+            return;
+        }
+        clear();
+        ProofContext ctx = ProofContext.fromBytes(proofContext);
+        if (ctx.isBLS()) {
+            byte[][] publicKeys = ctx.getPublicKeys();
+            for (int i = 0; i < publicKeys.length; i++) {
+                keys.add(publicKeys[i]);
+                slots.set(publicKeys[i], i);
+            }
+        } else {
+            EthAddress[] validators = ctx.getValidators();
+            for (int i = 0; i < validators.length; i++) {
+                byte[] address = validators[i].toBytes();
+                keys.add(address);
+                slots.set(address, i);
+            }
+        }
+        bls.set(ctx.isBLS() ? Boolean.TRUE : null);
+        hash.set(proofContextHash);
+    }
+
+    private void clear() {
+        int size = keys.size();
+        for (int i = 0; i < size; i++) {
+            slots.set(keys.pop(), null);
+        }
+    }
+
+    public boolean isBLS() {
+        return bls.getOrDefault(false);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the address or the public key of the validator at slot
+     */
+    public byte[] keyAt(int slot) {
+        return keys.get(slot);
+    }
+
+    /**
+     * Returns the slot of the validator, -1 if it's not a validator
+     */
+    public int slotOf(EthAddress address) {
+        Integer slot = slots.get(address.toBytes());
+        return slot == null ? -1 : slot;
+    }
+}
@@ -20,16 +20,20 @@ import com.iconloop.score.test.Account;
 import com.iconloop.score.test.Score;
 import com.iconloop.score.test.ServiceManager;
 import com.iconloop.score.test.TestBase;
+import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.test.BTPIntegrationTest;
 import foundation.icon.score.util.StringUtil;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import score.Address;
 import score.RevertedException;
+import score.UserRevertException;
 import score.UserRevertedException;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -195,11 +199,11 @@ public class BTPMessageVerifierUnitTest extends TestBase {
 
         var proofNullMsg = "f8f5f8f3f8f101b8eef8ecb8e8f8e61400a0d643eeba45acdab7b4fd65ecdb8622e67243cb264251917f845ba014c57c15cfe3e201a0a4997d283af68023f69666832df08cafb4b91789b10438f13b48bdfbaa03e4ac0203a0b01a7e90a687b64b58e2410a31e1b2e8e131672563c6c52db84eeadd15b6956403a04eaeed1d1e8444f108a0f79abbc5150dd768bbda89279c2e4a301fe8c4e5dd26b858f856f85494911ac74dd9ff8f4cdd91e747afcfdc9410a926e99497e36fb88560a3023c509704801eb1149acecf4394a9b0a74b2b63ab9cd20c6e38c88195c8175beb4694432b6448f3471aef190819b3c4f549a3a689d83af800";
         var proofNull = assertThrows(
-                RevertedException.class, () -> sm.call(
+                UserRevertedException.class, () -> sm.call(
                         bmcAccount, BigInteger.ZERO, score.getAddress(), "handleRelayMessage",
                         bmc.toString(), prev.toString(), BigInteger.valueOf(1), StringUtil.hexToBytes(proofNullMsg))
         );
-        assertNull(proofNull.getMessage());
+        assertTrue(proofNull.getMessage().contains("not exists proof of proofContext update"));
     }
 
     /***
@@ -284,6 +288,248 @@ public class BTPMessageVerifierUnitTest extends TestBase {
 
     }
 
+    static Score deploy(SourceChain chain) throws Exception {
+        return sm.deploy(owner, BTPMessageVerifier.class,
+                SourceChain.SRC_NETWORK_ID,
+                SourceChain.NETWORK_TYPE_ID,
+                Address.fromString(bmc.account()),
+                chain.first(),
+                BigInteger.ZERO
+        );
+    }
+
+    static byte[][] handleRelayMessage(Score score, long seq, RelayMessage.TypePrefixedMessage... messages) {
+        return (byte[][]) sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(), "handleRelayMessage",
+                bmc.toString(), prev.toString(), BigInteger.valueOf(seq), SourceChain.toRelayMessage(messages));
+    }
+
+    static void assertReverted(String message, Executable executable) {
+        var e = assertThrows(UserRevertedException.class, executable);
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    static long getHeight(Score score) {
+        return ((BMVStatus) score.call("getStatus")).getHeight();
+    }
+
+    @Test
+    public void proofContextIndexAfterUpdate() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var block = chain.next();
+        handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, block.proof()));
+
+        var prevWallets = chain.getWallets();
+        var update = chain.nextWithValidators(SourceChain.newWallets(7));
+        handleRelayMessage(bmv, 0, SourceChain.blockUpdate(update, update.proof()));
+
+        var next = chain.next();
+        var byPrev = SourceChain.newProofs(next.decisionHash, Arrays.copyOf(prevWallets, 3));
+        assertReverted("invalid validator : ",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(next, byPrev)));
+        handleRelayMessage(bmv, 0, SourceChain.blockUpdate(next, next.proof()));
+        assertEquals(chain.getHeight(), getHeight(bmv));
+    }
+
+    @Test
+    public void proofWithDuplicatedValidator() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var block = chain.next();
+        var wallets = chain.getWallets();
+        var proof = SourceChain.newProofs(block.decisionHash, wallets[0], wallets[1], wallets[0]);
+        assertReverted("duplicated validator : ",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, proof)));
+    }
+
+    @Test
+    public void proofWithUnknownSigner() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var block = chain.next();
+        var wallets = chain.getWallets();
+        var unknown = SourceChain.newWallets(1)[0];
+        var proof = SourceChain.newProofs(block.decisionHash, wallets[0], unknown, wallets[1]);
+        assertReverted("invalid validator : ",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, proof)));
+    }
+
+    @Test
+    public void proofBelowQuorum() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var block = chain.next();
+        assertReverted("not enough proof parts",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, block.proof(2))));
+    }
+
+    //k * generator of bls12-381-g1 for k = 1..4
+    static final String[] BLS_PUBLIC_KEYS = {
+            "97f1d3a73197d7942695638c4fa9ac0fc3688c4f9774b905a14e3a3f171bac586c55e83ff97a1aeffb3af00adb22c6bb",
+            "a572cbea904d67468808c8eb50a9450c9721db309128012543902d0ac358a62ae28f75bb8f1c7c42c39a8c5529bf0f4e",
+            "89ece308f9d1f0131765212deca99697b112d61f9be9a5f1f3780a51335b3ff981747a0b2ca2179b96d2c0c9024e5224",
+            "ac9b60d5afcbd5663a8a44b7c5a02f19e9a77ab0a35bd65809bb5c67ec582c897feb04decc694b13e08587f3ff9b5b60"
+    };
+    //generator of bls12-381-g2, which is valid point but not a signature of any decision
+    static final String BLS_INVALID_SIGNATURE = "93e02b6052719f607dacd3a088274f65596bd0d09920b61ab5da61bbdc7f5049334cf11213945d57e5ac7d055d042b7e024aa2b2f08f0a91260805272dc51051c6e47ad4fa403b02b4510b647ae3d1770bac0326a805bbefd48056c8c121bdb8";
+
+    static byte[][] blsPublicKeys() {
+        var keys = new byte[BLS_PUBLIC_KEYS.length][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = StringUtil.hexToBytes(BLS_PUBLIC_KEYS[i]);
+        }
+        return keys;
+    }
+
+    @Test
+    public void blsProofWithInvalidSigners() throws Exception {
+        var chain = new SourceChain(blsPublicKeys());
+        var bmv = deploy(chain);
+        var block = chain.next();
+        var signature = StringUtil.hexToBytes(BLS_INVALID_SIGNATURE);
+
+        var invalidLength = SourceChain.newBLSProofs(signature, new byte[]{0x07, 0x00});
+        assertReverted("invalid length of signers",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, invalidLength)));
+
+        var outOfRange = SourceChain.newBLSProofs(signature, new byte[]{0x17});
+        assertReverted("invalid signer : 4",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, outOfRange)));
+
+        var belowQuorum = SourceChain.newBLSProofs(signature, new byte[]{0x03});
+        assertReverted("not enough proof parts num of validator : 4, num of proof parts : 2",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, belowQuorum)));
+    }
+
+    @Test
+    public void blsProofWithInvalidSignature() throws Exception {
+        var chain = new SourceChain(blsPublicKeys());
+        var bmv = deploy(chain);
+        var block = chain.next();
+        var proof = SourceChain.newBLSProofs(StringUtil.hexToBytes(BLS_INVALID_SIGNATURE), new byte[]{0x07});
+        assertReverted("invalid aggregated signature",
+                () -> handleRelayMessage(bmv, 0, SourceChain.blockUpdate(block, proof)));
+    }
+
+    @Test
+    public void proofContextWithMixedKeys() {
+        var blsKey = StringUtil.hexToBytes(BLS_PUBLIC_KEYS[0]);
+        var address = new byte[EthAddress.ADDRESS_LEN];
+        var blsFirst = assertThrows(UserRevertException.class,
+                () -> ProofContext.fromBytes(SourceChain.newProofContext(new byte[][]{blsKey, address})));
+        assertTrue(blsFirst.getMessage().contains("invalid public key length"));
+
+        var addressFirst = assertThrows(UserRevertException.class,
+                () -> ProofContext.fromBytes(SourceChain.newProofContext(new byte[][]{address, blsKey})));
+        assertTrue(addressFirst.getMessage().contains("invalid Address data length"));
+    }
+
+    @Test
+    public void blockUpdatesWithOnlyLastProof() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var b1 = chain.next();
+        var b2 = chain.next();
+        var b3 = chain.next();
+        handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.blockUpdate(b2, null),
+                SourceChain.blockUpdate(b3, b3.proof()));
+        assertEquals(chain.getHeight(), getHeight(bmv));
+    }
+
+    @Test
+    public void blockUpdatesWithBrokenPrev() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var b1 = chain.next();
+        chain.next();
+        var b3 = chain.next();
+        assertReverted("mismatch networkSectionHash", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.blockUpdate(b3, b3.proof())));
+    }
+
+    @Test
+    public void blockUpdatesWithoutLastProof() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var height = getHeight(bmv);
+        var b1 = chain.next();
+        var b2 = chain.next();
+        assertReverted("not exists proof of last blockUpdate", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, b1.proof()),
+                SourceChain.blockUpdate(b2, null)));
+        assertEquals(height, getHeight(bmv));
+
+        var update = chain.nextWithValidators(SourceChain.newWallets(4));
+        var b4 = chain.next();
+        assertReverted("not exists proof of proofContext update", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.blockUpdate(b2, null),
+                SourceChain.blockUpdate(update, null),
+                SourceChain.blockUpdate(b4, b4.proof())));
+    }
+
+    @Test
+    public void messageProofOfBlockUpdateWithoutProof() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var messages = new byte[][]{"first".getBytes(), "second".getBytes(), "third".getBytes()};
+        var b1 = chain.next(messages);
+        var b2 = chain.next();
+        assertReverted("not exists proof of last blockUpdate", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.messageProof(b1, 0, messages.length)));
+
+        var tampered = new SourceChain.Block(b1.header, b1.networkSectionHash, b1.decisionHash,
+                new byte[][]{"first".getBytes(), "fake".getBytes(), "third".getBytes()}, b1.validators);
+        assertReverted("mismatch MessagesRoot", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.messageProof(tampered, 0, messages.length),
+                SourceChain.blockUpdate(b2, b2.proof())));
+
+        var ret = handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, null),
+                SourceChain.messageProof(b1, 0, messages.length),
+                SourceChain.blockUpdate(b2, b2.proof()));
+        assertEquals(messages.length, ret.length);
+        for (int i = 0; i < messages.length; i++) {
+            assertArrayEquals(messages[i], ret[i]);
+        }
+        assertEquals(chain.getHeight(), getHeight(bmv));
+    }
+
+    @Test
+    public void failureOfLaterMessageKeepsStatus() throws Exception {
+        var chain = new SourceChain(4);
+        var bmv = deploy(chain);
+        var status = (BMVStatus) bmv.call("getStatus");
+        var messages = new byte[][]{"first".getBytes(), "second".getBytes()};
+        var b1 = chain.next(messages);
+        var b2 = chain.next();
+
+        var tampered = new SourceChain.Block(b1.header, b1.networkSectionHash, b1.decisionHash,
+                new byte[][]{"first".getBytes(), "fake".getBytes()}, b1.validators);
+        assertReverted("mismatch MessagesRoot", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, b1.proof()),
+                SourceChain.messageProof(tampered, 0, messages.length)));
+        assertReverted("not enough proof parts", () -> handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, b1.proof()),
+                SourceChain.messageProof(b1, 0, messages.length),
+                SourceChain.blockUpdate(b2, b2.proof(2))));
+        var after = (BMVStatus) bmv.call("getStatus");
+        assertEquals(status.getHeight(), after.getHeight());
+        assertArrayEquals(status.getExtra(), after.getExtra());
+
+        var ret = handleRelayMessage(bmv, 0,
+                SourceChain.blockUpdate(b1, b1.proof()),
+                SourceChain.messageProof(b1, 0, messages.length),
+                SourceChain.blockUpdate(b2, b2.proof()));
+        assertEquals(messages.length, ret.length);
+        assertEquals(chain.getHeight(), getHeight(bmv));
+    }
+
     private void successCase(List<String> relayMessages, List<String[]> messages) throws Exception {
         score = sm.deploy(owner, BTPMessageVerifier.class,
                 SRC_NETWORK_ID,
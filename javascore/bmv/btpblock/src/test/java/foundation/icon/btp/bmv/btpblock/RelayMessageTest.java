@@ -18,8 +18,12 @@ package foundation.icon.btp.bmv.btpblock;
 import foundation.icon.score.util.StringUtil;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RelayMessageTest {
     @Test
@@ -41,4 +45,112 @@ public class RelayMessageTest {
         var fromBytes = RelayMessage.fromBytes(bytes);
         assertArrayEquals(relayMessage.getMessages(), fromBytes.getMessages());
     }
+
+    static byte[][] messages(int n) {
+        var messages = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            messages[i] = ("message" + i).getBytes();
+        }
+        return messages;
+    }
+
+    static byte[] concatAndHash(byte[] b1, byte[] b2) {
+        var data = new byte[b1.length + b2.length];
+        System.arraycopy(b1, 0, data, 0, b1.length);
+        System.arraycopy(b2, 0, data, b1.length, b2.length);
+        return BTPMessageVerifier.hash(data);
+    }
+
+    /**
+     * Returns the root of messages[from:to], the left subtree is the largest perfect subtree
+     */
+    static byte[] root(byte[][] messages, int from, int to) {
+        var n = to - from;
+        if (n == 1) {
+            return BTPMessageVerifier.hash(messages[from]);
+        }
+        var left = Integer.highestOneBit(n - 1);
+        return concatAndHash(root(messages, from, from + left), root(messages, from + left, to));
+    }
+
+    /**
+     * Returns perfect subtrees of messages[0:to] from left
+     */
+    static ProofNode[] leftProofNodes(byte[][] messages, int to) {
+        var nodes = new ProofNode[Integer.bitCount(to)];
+        var offset = 0;
+        var i = 0;
+        for (int bit = Integer.highestOneBit(to); bit > 0; bit >>= 1) {
+            if ((to & bit) != 0) {
+                nodes[i++] = new ProofNode(bit, root(messages, offset, offset + bit));
+                offset += bit;
+            }
+        }
+        return nodes;
+    }
+
+    static ProofNode[] leafProofNodes(byte[][] messages, int from) {
+        var nodes = new ProofNode[messages.length - from];
+        for (int i = from; i < messages.length; i++) {
+            nodes[i - from] = new ProofNode(1, BTPMessageVerifier.hash(messages[i]));
+        }
+        return nodes;
+    }
+
+    @Test
+    void proveMessageTest() {
+        for (int n = 1; n <= 9; n++) {
+            var messages = messages(n);
+            var expected = root(messages, 0, n);
+            for (int from = 0; from <= n; from++) {
+                for (int to = from; to <= n; to++) {
+                    var messageProof = new MessageProof(
+                            leftProofNodes(messages, from),
+                            Arrays.copyOfRange(messages, from, to),
+                            leafProofNodes(messages, to));
+                    var result = messageProof.proveMessage();
+                    assertArrayEquals(expected, result.hash, "n:" + n + " from:" + from + " to:" + to);
+                    assertEquals(from, result.offset);
+                    assertEquals(n, result.total);
+                }
+            }
+        }
+    }
+
+    @Test
+    void proveMessageWithNotPerfectRightNode() {
+        var messages = messages(7);
+        var messageProof = new MessageProof(
+                new ProofNode[0],
+                Arrays.copyOfRange(messages, 0, 2),
+                new ProofNode[]{
+                        new ProofNode(2, root(messages, 2, 4)),
+                        new ProofNode(3, root(messages, 4, 7))
+                });
+        var result = messageProof.proveMessage();
+        assertArrayEquals(root(messages, 0, 7), result.hash);
+        assertEquals(7, result.total);
+    }
+
+    @Test
+    void proveMessageWithInvalidLevel() {
+        var messages = messages(3);
+        var messageProof = new MessageProof(
+                new ProofNode[]{new ProofNode(1, root(messages, 0, 1))},
+                new byte[0][],
+                new ProofNode[]{new ProofNode(2, root(messages, 1, 3))});
+        var e = assertThrows(BMVException.class, messageProof::proveMessage);
+        assertTrue(e.getMessage().contains("invalid level left : 1 right : 2"), e.getMessage());
+    }
+
+    @Test
+    void proveMessageAfterNotPerfectNode() {
+        var messages = messages(4);
+        var messageProof = new MessageProof(
+                new ProofNode[]{new ProofNode(3, root(messages, 0, 3))},
+                Arrays.copyOfRange(messages, 3, 4),
+                new ProofNode[0]);
+        var e = assertThrows(BMVException.class, messageProof::proveMessage);
+        assertTrue(e.getMessage().contains("invalid numOfLeaf, expected : 4, value : 3"), e.getMessage());
+    }
 }
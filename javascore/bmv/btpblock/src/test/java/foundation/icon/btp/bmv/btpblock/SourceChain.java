@@ -0,0 +1,302 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.btpblock;
+
+import foundation.icon.icx.KeyWallet;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Source network for tests, which makes linked BlockHeaders of the network
+ * and proofs of NetworkTypeSectionDecision signed by validators of ProofContext.
+ */
+public class SourceChain {
+    static final String SRC_NETWORK_ID = "btp://0x1.icon";
+    static final int NETWORK_TYPE_ID = 2;
+    static final BigInteger NID = BigInteger.ONE;
+
+    /**
+     * BlockHeader of the network, it keeps the validators which should sign the decision.
+     */
+    public static class Block {
+        final byte[] header;
+        final byte[] networkSectionHash;
+        final byte[] decisionHash;
+        final byte[][] messages;
+        final KeyWallet[] validators;
+
+        Block(byte[] header, byte[] networkSectionHash, byte[] decisionHash, byte[][] messages,
+              KeyWallet[] validators) {
+            this.header = header;
+            this.networkSectionHash = networkSectionHash;
+            this.decisionHash = decisionHash;
+            this.messages = messages;
+            this.validators = validators;
+        }
+
+        /**
+         * Returns Proofs signed by the first n validators.
+         */
+        public byte[] proof(int n) {
+            return newProofs(decisionHash, Arrays.copyOf(validators, n));
+        }
+
+        /**
+         * Returns Proofs signed by the quorum of validators.
+         */
+        public byte[] proof() {
+            return proof(validators.length * 2 / 3 + 1);
+        }
+    }
+
+    private KeyWallet[] wallets;
+    private byte[] proofContext;
+    private byte[] proofContextHash;
+    private long height;
+    private BigInteger messageSn = BigInteger.ZERO;
+    private byte[] lastNetworkSectionHash;
+
+    public SourceChain(int numOfValidators) {
+        this(newWallets(numOfValidators));
+    }
+
+    public SourceChain(KeyWallet[] wallets) {
+        this.wallets = wallets;
+        setProofContext(newProofContext(addressesOf(wallets)));
+    }
+
+    /**
+     * Makes the source network whose ProofContext has the keys,
+     * proofs of the network should be made by the caller.
+     */
+    public SourceChain(byte[][] keys) {
+        this.wallets = new KeyWallet[0];
+        setProofContext(newProofContext(keys));
+    }
+
+    private void setProofContext(byte[] proofContext) {
+        this.proofContext = proofContext;
+        this.proofContextHash = BTPMessageVerifier.hash(proofContext);
+    }
+
+    static KeyWallet[] newWallets(int n) {
+        KeyWallet[] wallets = new KeyWallet[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                wallets[i] = KeyWallet.create();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return wallets;
+    }
+
+    static EthAddress addressOf(KeyWallet wallet) {
+        byte[] msg = BTPMessageVerifier.hash("address".getBytes());
+        return BTPMessageVerifier.recoverAddress(msg, wallet.sign(msg));
+    }
+
+    static byte[][] addressesOf(KeyWallet[] wallets) {
+        byte[][] addresses = new byte[wallets.length][];
+        for (int i = 0; i < wallets.length; i++) {
+            addresses[i] = addressOf(wallets[i]).toBytes();
+        }
+        return addresses;
+    }
+
+    static byte[] newProofContext(byte[][] keys) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(1);
+        writeBytesList(w, keys);
+        w.end();
+        return w.toByteArray();
+    }
+
+    static byte[] newProofs(byte[] decisionHash, KeyWallet... signers) {
+        byte[][] signatures = new byte[signers.length][];
+        for (int i = 0; i < signers.length; i++) {
+            signatures[i] = signers[i].sign(decisionHash);
+        }
+        return newProofs(signatures);
+    }
+
+    static byte[] newProofs(byte[][] signatures) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(1);
+        writeBytesList(w, signatures);
+        w.end();
+        return w.toByteArray();
+    }
+
+    static byte[] newBLSProofs(byte[] signature, byte[] signers) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(2);
+        w.write(signature);
+        w.write(signers);
+        w.end();
+        return w.toByteArray();
+    }
+
+    static void writeBytesList(ByteArrayObjectWriter w, byte[][] list) {
+        w.beginList(list.length);
+        for (byte[] v : list) {
+            w.write(v);
+        }
+        w.end();
+    }
+
+    static byte[] messagesRoot(byte[][] messages, int from, int to) {
+        MessageProof.Accumulator acc = new MessageProof.Accumulator();
+        for (int i = from; i < to; i++) {
+            acc.add(1, BTPMessageVerifier.hash(messages[i]));
+        }
+        return acc.root();
+    }
+
+    public KeyWallet[] getWallets() {
+        return wallets;
+    }
+
+    public byte[] getProofContext() {
+        return proofContext;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public BigInteger getMessageSn() {
+        return messageSn;
+    }
+
+    /**
+     * Returns the first BlockHeader which is the parameter of the constructor of BMV.
+     */
+    public byte[] first() {
+        return next(null, true, new byte[0][]).header;
+    }
+
+    /**
+     * Makes the next BlockHeader which is linked to the last BlockHeader.
+     */
+    public Block next(byte[]... messages) {
+        return next(null, false, messages);
+    }
+
+    /**
+     * Makes the next BlockHeader which updates ProofContext with the validators,
+     * it should be signed by the previous validators.
+     */
+    public Block nextWithValidators(KeyWallet[] nextWallets, byte[]... messages) {
+        return next(nextWallets, false, messages);
+    }
+
+    private Block next(KeyWallet[] nextWallets, boolean first, byte[][] messages) {
+        KeyWallet[] signers = wallets;
+        boolean isUpdate = nextWallets != null || first;
+        if (nextWallets != null) {
+            wallets = nextWallets;
+            setProofContext(newProofContext(addressesOf(nextWallets)));
+        }
+        height++;
+        BigInteger updateNumber = messageSn.shiftLeft(1).or(isUpdate ? BigInteger.ONE : BigInteger.ZERO);
+        BigInteger messageCount = BigInteger.valueOf(messages.length);
+        byte[] messageRoot = messagesRoot(messages, 0, messages.length);
+        byte[] prev = first ? null : lastNetworkSectionHash;
+        byte[] nsHash = new NetworkSection(NID, updateNumber, prev, messageCount, messageRoot).hash();
+        byte[] ntsHash = new NetworkTypeSection(proofContextHash, nsHash).hash();
+        byte[] decisionHash = new NetworkTypeSectionDecision(
+                SRC_NETWORK_ID.getBytes(), NETWORK_TYPE_ID, height, 0, ntsHash).hash();
+
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(10);
+        w.write(BigInteger.valueOf(height));
+        w.write(BigInteger.ZERO);
+        w.write(proofContextHash);
+        w.beginList(0);
+        w.end();
+        w.write(NID);
+        w.write(updateNumber);
+        w.writeNullable(prev);
+        w.write(messageCount);
+        w.writeNullable(messageRoot);
+        w.writeNullable(isUpdate ? proofContext : null);
+        w.end();
+
+        lastNetworkSectionHash = nsHash;
+        messageSn = messageSn.add(messageCount);
+        return new Block(w.toByteArray(), nsHash, decisionHash, messages, signers);
+    }
+
+    static RelayMessage.TypePrefixedMessage blockUpdate(byte[] header, byte[] proof) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(2);
+        w.write(header);
+        w.writeNullable(proof);
+        w.end();
+        return new RelayMessage.TypePrefixedMessage(
+                RelayMessage.TypePrefixedMessage.BLOCK_UPDATE, w.toByteArray());
+    }
+
+    static RelayMessage.TypePrefixedMessage blockUpdate(Block block, byte[] proof) {
+        return blockUpdate(block.header, proof);
+    }
+
+    /**
+     * Returns MessageProof of messages[from:to] of the BlockHeader,
+     * messages before from are proven by perfect subtrees, and messages after to by leaves.
+     */
+    static RelayMessage.TypePrefixedMessage messageProof(Block block, int from, int to) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLPn");
+        w.beginList(3);
+        int numOfLeft = Integer.bitCount(from);
+        w.beginList(numOfLeft);
+        int offset = 0;
+        for (int bit = Integer.highestOneBit(from); bit > 0; bit >>= 1) {
+            if ((from & bit) != 0) {
+                writeProofNode(w, bit, messagesRoot(block.messages, offset, offset + bit));
+                offset += bit;
+            }
+        }
+        w.end();
+        writeBytesList(w, Arrays.copyOfRange(block.messages, from, to));
+        w.beginList(block.messages.length - to);
+        for (int i = to; i < block.messages.length; i++) {
+            writeProofNode(w, 1, BTPMessageVerifier.hash(block.messages[i]));
+        }
+        w.end();
+        w.end();
+        return new RelayMessage.TypePrefixedMessage(
+                RelayMessage.TypePrefixedMessage.MESSAGE_PROOF, w.toByteArray());
+    }
+
+    static void writeProofNode(ByteArrayObjectWriter w, int numOfLeaf, byte[] value) {
+        w.beginList(2);
+        w.write(numOfLeaf);
+        w.write(value);
+        w.end();
+    }
+
+    static byte[] toRelayMessage(RelayMessage.TypePrefixedMessage... messages) {
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setMessages(messages);
+        return relayMessage.toBytes();
+    }
+}
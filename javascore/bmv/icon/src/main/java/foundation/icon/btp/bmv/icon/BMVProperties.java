@@ -27,6 +27,8 @@ public class BMVProperties {
 
     private Address bmc;
     private String net;
+
+    //stored in BMVState, only read from legacy format
     private long lastHeight;
     private Validators validators;
     private MerkleTreeAccumulator mta;
@@ -92,22 +94,20 @@ public class BMVProperties {
         reader.beginList();
         obj.setBmc(reader.readNullable(Address.class));
         obj.setNet(reader.readNullable(String.class));
-        obj.setLastHeight(reader.readLong());
-        obj.setValidators(reader.readNullable(Validators.class));
-        obj.setMta(reader.readNullable(MerkleTreeAccumulator.class));
+        if (reader.hasNext()) {
+            //legacy format [bmc, net, lastHeight, validators, mta]
+            obj.setLastHeight(reader.readLong());
+            obj.setValidators(reader.readNullable(Validators.class));
+            obj.setMta(reader.readNullable(MerkleTreeAccumulator.class));
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(5);
+        writer.beginList(2);
         writer.writeNullable(this.getBmc());
         writer.writeNullable(this.getNet());
-        writer.write(this.getLastHeight());
-        Validators validators = this.getValidators();
-        writer.writeNullable(validators);
-        MerkleTreeAccumulator mta = this.getMta();
-        writer.writeNullable(mta);
         writer.end();
     }
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import score.ArrayDB;
+import score.Context;
+import score.VarDB;
+
+/**
+ * State of BMV which is updated by relay messages.
+ * Each value is stored in a separate VarDB, and the cache of MerkleTreeAccumulator is stored in {@link MTACache}.
+ * Values are loaded on the first access, and only the modified values are written by {@link #flush()}.
+ * Hashes of BlockHeaders which are not verified by votes yet are kept in pending,
+ * they are added to MerkleTreeAccumulator after verified, or discarded by the conflicting verified BlockHeader.
+ */
+public class BMVState {
+    private final Slot<Validators> validators = new Slot<>(
+            Context.newVarDB("validators", Validators.class), null);
+    private final Slot<byte[]> validatorsHash = new Slot<>(
+            Context.newVarDB("validatorsHash", byte[].class), null);
+    private final Slot<Long> lastHeight = new Slot<>(
+            Context.newVarDB("lastHeight", Long.class), 0L);
+    private final Slot<MerkleTreeAccumulator> mta = new Slot<>(
+            Context.newVarDB("mta", MerkleTreeAccumulator.class), null);
+    private final ArrayDB<byte[]> pending = Context.newArrayDB("pending", byte[].class);
+
+    static class Slot<V> {
+        private final VarDB<V> db;
+        private final V defaultValue;
+        private V value;
+        private boolean loaded;
+        private boolean dirty;
+
+        Slot(VarDB<V> db, V defaultValue) {
+            this.db = db;
+            this.defaultValue = defaultValue;
+        }
+
+        V get() {
+            if (!loaded) {
+                value = db.getOrDefault(defaultValue);
+                loaded = true;
+            }
+            return value;
+        }
+
+        void set(V value) {
+            this.value = value;
+            this.loaded = true;
+            this.dirty = true;
+        }
+
+        void flush() {
+            if (dirty) {
+                db.set(value);
+                dirty = false;
+            }
+        }
+    }
+
+    public Validators getValidators() {
+        return validators.get();
+    }
+
+    public void setValidators(Validators validators) {
+        setValidators(validators, BTPMessageVerifier.hash(validators.toBytes()));
+    }
+
+    /**
+     * @param hash hash of serialized bytes of validators, which is already verified
+     */
+    public void setValidators(Validators validators, byte[] hash) {
+        this.validators.set(validators);
+        this.validatorsHash.set(hash);
+    }
+
+    /**
+     * Returns the hash of validators, it's calculated and stored if not exists.
+     */
+    public byte[] getValidatorsHash() {
+        byte[] hash = validatorsHash.get();
+        if (hash == null) {
+            Validators validators = getValidators();
+            if (validators != null) {
+                hash = BTPMessageVerifier.hash(validators.toBytes());
+                validatorsHash.set(hash);
+            }
+        }
+        return hash;
+    }
+
+    public long getLastHeight() {
+        return lastHeight.get();
+    }
+
+    public void setLastHeight(long lastHeight) {
+        this.lastHeight.set(lastHeight);
+    }
+
+    public MerkleTreeAccumulator getMta() {
+        MerkleTreeAccumulator mta = this.mta.get();
+        if (mta != null && mta.getCacheDB() == null) {
+            mta.setCacheDB(new MTACache("mta|cache"));
+        }
+        return mta;
+    }
+
+    /**
+     * Sets MerkleTreeAccumulator, it should be called after MerkleTreeAccumulator is modified.
+     */
+    public void setMta(MerkleTreeAccumulator mta) {
+        if (mta.getCacheDB() == null) {
+            mta.setCacheDB(new MTACache("mta|cache"));
+        }
+        this.mta.set(mta);
+    }
+
+    public int getPendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the hash of the last pending BlockHeader, null if there is no pending.
+     */
+    public byte[] getLastPending() {
+        int size = pending.size();
+        return size > 0 ? pending.get(size - 1) : null;
+    }
+
+    /**
+     * Returns the hash of the pending BlockHeader at the index, the index of the first one is zero.
+     */
+    public byte[] getPending(int index) {
+        return pending.get(index);
+    }
+
+    public void addPending(byte[] hash) {
+        pending.add(hash);
+    }
+
+    /**
+     * Adds the first pending hashes to MerkleTreeAccumulator in order, then clears pending.
+     * It should be called after the last applied BlockHeader is verified,
+     * the remained pending hashes are discarded as they conflict with the verified BlockHeader.
+     *
+     * @param size number of pending hashes to be added
+     */
+    public void applyPending(MerkleTreeAccumulator mta, int size) {
+        for (int i = 0; i < size; i++) {
+            mta.add(pending.get(i));
+        }
+        for (int i = pending.size(); i > 0; i--) {
+            pending.removeLast();
+        }
+    }
+
+    /**
+     * Moves the values from the legacy format of BMVProperties.
+     *
+     * @return true if the values are moved
+     */
+    public boolean migrate(BMVProperties properties) {
+        if (properties.getValidators() == null && properties.getMta() == null) {
+            return false;
+        }
+        setLastHeight(properties.getLastHeight());
+        if (properties.getValidators() != null) {
+            setValidators(properties.getValidators());
+        }
+        if (properties.getMta() != null) {
+            setMta(properties.getMta());
+        }
+        properties.setLastHeight(0);
+        properties.setValidators(null);
+        properties.setMta(null);
+        return true;
+    }
+
+    public void flush() {
+        validators.flush();
+        validatorsHash.flush();
+        lastHeight.flush();
+        mta.flush();
+    }
+}
@@ -21,9 +21,14 @@ import score.Context;
 import score.ObjectReader;
 import score.ObjectWriter;
 
+/**
+ * Extra of BMVStatus, pendingHeight is the height of the last pending BlockHeader
+ * which is not verified by votes yet, it's encoded only if there is pending.
+ */
 public class BMVStatusExtra {
     private long offset;
     private long lastHeight;
+    private long pendingHeight;
 
     public BMVStatusExtra() {
     }
@@ -33,6 +38,12 @@ public class BMVStatusExtra {
         this.lastHeight = lastHeight;
     }
 
+    public BMVStatusExtra(long offset, long lastHeight, long pendingHeight) {
+        this.offset = offset;
+        this.lastHeight = lastHeight;
+        this.pendingHeight = pendingHeight;
+    }
+
     public long getOffset() {
         return offset;
     }
@@ -49,11 +60,20 @@ public class BMVStatusExtra {
         this.lastHeight = lastHeight;
     }
 
+    public long getPendingHeight() {
+        return pendingHeight;
+    }
+
+    public void setPendingHeight(long pendingHeight) {
+        this.pendingHeight = pendingHeight;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("BMVStatusExtra{");
         sb.append("offset=").append(offset);
         sb.append(", lastHeight=").append(lastHeight);
+        sb.append(", pendingHeight=").append(pendingHeight);
         sb.append('}');
         return sb.toString();
     }
@@ -67,14 +87,21 @@ public class BMVStatusExtra {
         reader.beginList();
         obj.setOffset(reader.readLong());
         obj.setLastHeight(reader.readLong());
+        if (reader.hasNext()) {
+            obj.setPendingHeight(reader.readLong());
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(2);
+        long pendingHeight = this.getPendingHeight();
+        writer.beginList(pendingHeight > 0 ? 3 : 2);
         writer.write(this.getOffset());
         writer.write(this.getLastHeight());
+        if (pendingHeight > 0) {
+            writer.write(pendingHeight);
+        }
         writer.end();
     }
 
@@ -26,10 +26,12 @@ import score.Context;
 import score.VarDB;
 import score.annotation.External;
 import scorex.util.ArrayList;
+import scorex.util.HashMap;
 
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class BTPMessageVerifier implements BMV {
     private static final Logger logger = Logger.getLogger(BTPMessageVerifier.class);
@@ -38,20 +40,26 @@ public class BTPMessageVerifier implements BMV {
 
     public BTPMessageVerifier(Address _bmc, String _net, String _validators, long _offset) {
         BMVProperties properties = getProperties();
+        BMVState state = new BMVState();
+        state.migrate(properties);
         properties.setBmc(_bmc);
         properties.setNet(_net);
         Validators validators = Validators.fromString(_validators);
-        properties.setValidators(validators);
-        if (properties.getLastHeight() == 0) {
-            properties.setLastHeight(_offset);
+        state.setValidators(validators);
+        if (state.getLastHeight() == 0) {
+            state.setLastHeight(_offset);
         }
-        if (properties.getMta() == null) {
-            MerkleTreeAccumulator mta = new MerkleTreeAccumulator();
+        MerkleTreeAccumulator mta = state.getMta();
+        if (mta == null) {
+            mta = new MerkleTreeAccumulator();
             mta.setHeight(_offset);
             mta.setOffset(_offset);
-            properties.setMta(mta);
+            state.setMta(mta);
+        } else {
+            mta.getCacheDB().ensureIndexes();
         }
         setProperties(properties);
+        state.flush();
     }
 
     static byte[] hash(byte[] bytes) {
@@ -82,13 +90,13 @@ public class BTPMessageVerifier implements BMV {
         BlockProof blockProof = relayMessage.getBlockProof();
         ReceiptProof[] receiptProofs = relayMessage.getReceiptProofs();
         BlockHeader lastBlockHeader;
-        BMVProperties properties = getProperties();
-        MerkleTreeAccumulator mta = properties.getMta();
+        BMVState state = new BMVState();
+        MerkleTreeAccumulator mta = state.getMta();
         if (blockUpdates != null && blockUpdates.length > 0) {
-            Validators validators = verifyBlockUpdates(blockUpdates, mta, properties.getValidators());
-            properties.setMta(mta);
-            if (validators != null) {
-                properties.setValidators(validators);
+            //messages are extracted only from the verified BlockHeader
+            boolean allowPending = receiptProofs == null || receiptProofs.length == 0;
+            if (verifyBlockUpdates(blockUpdates, mta, state, allowPending)) {
+                state.setMta(mta);
             }
             lastBlockHeader = blockUpdates[blockUpdates.length - 1].getBlockHeader();
         } else if (blockProof != null) {
@@ -106,14 +114,15 @@ public class BTPMessageVerifier implements BMV {
                 throw BMVException.unknown("invalid RelayMessage, BlockHeader has not receiptHash");
             }
             byte[] receiptHash = lastBlockHeader.getResult().getReceiptHash();
+            byte[][] proofNodes = relayMessage.getProofNodes();
+            //verified MPT nodes by hash, shared by all proofs of the RelayMessage
+            Map<String, byte[]> nodeCache = new HashMap<>();
+            byte[] prevBMC = Address.fromString(prevAddr.account()).toByteArray();
             for(ReceiptProof receiptProof : receiptProofs) {
-                Receipt receipt = proveReceiptProof(receiptProof, receiptHash);
-                for(EventLog eventLog : receipt.getEventLogs()) {
-                    if(!(prevAddr.account().equals(eventLog.getAddress().toString()))) {
-                        continue;
-                    }
-                    MessageEvent msgEvent = eventLog.toMessageEvent();
-                    if (msgEvent != null && msgEvent.getNext().equals(_bmc)) {
+                List<MessageEvent> msgEvents = proveMessageEvents(
+                        receiptProof, receiptHash, prevBMC, proofNodes, nodeCache);
+                for(MessageEvent msgEvent : msgEvents) {
+                    if (msgEvent.getNext().equals(_bmc)) {
                         int compare = msgEvent.getSeq().compareTo(next_seq);
                         if (compare > 0) {
                             throw BMVException.invalidSequenceHigher(
@@ -129,61 +138,131 @@ public class BTPMessageVerifier implements BMV {
                 }
             }
             if (msgs.size() > 0) {
-                properties.setLastHeight(lastBlockHeader.getHeight());
+                state.setLastHeight(lastBlockHeader.getHeight());
                 ret = new byte[msgs.size()][];
                 int i = 0;
                 for (byte[] msg : msgs) {
-                    ret[i] = msg;
+                    ret[i++] = msg;
                 }
             }
         }
 
-        if ((blockUpdates != null && blockUpdates.length > 0) || ret.length > 0) {
-            setProperties(properties);
-        }
+        state.flush();
         return ret;
     }
 
-    private Receipt proveReceiptProof(ReceiptProof receiptProof, byte[] receiptHash) {
+    /**
+     * Proves the receipt and its events, then returns Message events of the BMC.
+     * If eventProofs exist, only Message events of the BMC are decoded.
+     */
+    private List<MessageEvent> proveMessageEvents(ReceiptProof receiptProof, byte[] receiptHash, byte[] bmcAddress,
+                                                  byte[][] proofNodes, Map<String, byte[]> nodeCache) {
         try {
             byte[] serializedReceipt = MerklePatriciaTree.prove(
                     receiptHash,
                     MerklePatriciaTree.encodeKey(receiptProof.getIndex()),
-                    receiptProof.getProofs().getProofs());
-            Receipt receipt = Receipt.fromBytes(serializedReceipt);
-            byte[] eventLogsHash = receipt.getEventLogsHash();
+                    receiptProof.getProofs().getProofs(),
+                    proofNodes, nodeCache);
+            List<MessageEvent> msgEvents = new ArrayList<>();
             MPTProof[] eventProofs = receiptProof.getEventProofs();
             if (eventProofs != null) {
-                EventLog[] eventLogs = new EventLog[eventProofs.length];
-                int i=0;
+                byte[] eventLogsHash = Receipt.eventLogsHash(serializedReceipt);
+                if (eventLogsHash == null) {
+                    throw BMVException.invalidMPT("invalid Receipt, not includes eventLogsHash");
+                }
                 for(MPTProof eventProof : eventProofs){
                     byte[] serializedEventLog = MerklePatriciaTree.prove(
                             eventLogsHash,
                             MerklePatriciaTree.encodeKey(eventProof.getIndex()),
-                            eventProof.getProofs().getProofs());
-                    EventLog eventLog = EventLog.fromBytes(serializedEventLog);
-                    eventLogs[i++] = eventLog;
+                            eventProof.getProofs().getProofs(),
+                            proofNodes, nodeCache);
+                    MessageEvent msgEvent = EventLog.toMessageEvent(serializedEventLog, bmcAddress);
+                    if (msgEvent != null) {
+                        msgEvents.add(msgEvent);
+                    }
+                }
+            } else {
+                Receipt receipt = Receipt.fromBytes(serializedReceipt);
+                for(EventLog eventLog : receipt.getEventLogs()) {
+                    if (eventLog.getAddress() == null ||
+                            !Arrays.equals(bmcAddress, eventLog.getAddress().toByteArray())) {
+                        continue;
+                    }
+                    MessageEvent msgEvent = eventLog.toMessageEvent();
+                    if (msgEvent != null) {
+                        msgEvents.add(msgEvent);
+                    }
                 }
-                receipt.setEventLogs(eventLogs);
             }
-            return receipt;
+            return msgEvents;
         } catch (MerklePatriciaTree.MPTException e) {
             throw BMVException.invalidMPT(e.getMessage());
         }
     }
 
-    private Validators verifyBlockUpdates(BlockUpdate[] blockUpdates, MerkleTreeAccumulator mta, Validators validators) {
-        boolean isValidatorsUpdate = false;
-        byte[] validatorHash = hash(validators.toBytes());
-        for(BlockUpdate blockUpdate : blockUpdates) {
+    /**
+     * Verifies BlockUpdates, votes could be omitted for catch-up
+     * except the last BlockUpdate and the BlockUpdate which changes validators.
+     * BlockHeader without votes is verified by prevHash of the next BlockHeader.
+     * If allowPending is true, the last BlockUpdate could omit votes also,
+     * then hashes of BlockHeaders which are not verified are kept as pending,
+     * so that long catch-up could be submitted in segments.
+     * Pending hashes are added to MerkleTreeAccumulator when the following BlockHeader is verified by votes.
+     * BlockUpdates could start at the height of pending BlockHeader to replace the conflicting pending hashes,
+     * then the last BlockUpdate should be verified by votes, so that unverified BlockHeader never replaces others.
+     *
+     * @return true if MerkleTreeAccumulator is updated, false if all BlockHeaders are kept as pending
+     */
+    private boolean verifyBlockUpdates(BlockUpdate[] blockUpdates, MerkleTreeAccumulator mta, BMVState state,
+                                    boolean allowPending) {
+        Validators validators = state.getValidators();
+        byte[] validatorHash = state.getValidatorsHash();
+        int storedPendingSize = state.getPendingSize();
+        int pendingSize = storedPendingSize;
+        //hash of the previous BlockHeader which is not verified by votes
+        byte[] unverifiedHash = state.getLastPending();
+        long height = mta.getHeight() + pendingSize;
+        long firstHeight = blockUpdates[0].getBlockHeader().getHeight();
+        if (firstHeight > mta.getHeight() && firstHeight <= height) {
+            pendingSize = (int) (firstHeight - mta.getHeight() - 1);
+            unverifiedHash = pendingSize > 0 ? state.getPending(pendingSize - 1) : null;
+            height = firstHeight - 1;
+            allowPending = false;
+        }
+        //hashes of BlockHeaders in blockUpdates which are not verified by votes
+        List<byte[]> unverified = new ArrayList<>();
+        boolean updated = false;
+        for(int i = 0; i < blockUpdates.length; i++) {
+            BlockUpdate blockUpdate = blockUpdates[i];
             BlockHeader blockHeader = blockUpdate.getBlockHeader();
             long blockHeight = blockHeader.getHeight();
-            long nextHeight = mta.getHeight() + 1;
+            long nextHeight = height + 1;
             if (nextHeight == blockHeight) {
-                byte[] blockHash = hash(blockHeader.toBytes());
-                verifyVotes(blockUpdate.getVotes(), blockHeight, blockHash, validators);
+                byte[] blockHash = hash(blockHeader.getBytes());
+                if (unverifiedHash != null && !Arrays.equals(unverifiedHash, blockHeader.getPrevHash())) {
+                    throw BMVException.invalidBlockUpdate("invalid prevHash");
+                }
                 byte[] nextValidatorHash = blockHeader.getNextValidatorHash();
-                if (!(Arrays.equals(validatorHash, nextValidatorHash))) {
+                boolean isValidatorsUpdate = !Arrays.equals(validatorHash, nextValidatorHash);
+                boolean isLast = i == blockUpdates.length - 1;
+                if (blockUpdate.getVotes() != null || isValidatorsUpdate || (isLast && !allowPending)) {
+                    verifyVotes(blockUpdate.getVotes(), blockHeight, blockHash, validators);
+                    if (storedPendingSize > 0) {
+                        state.applyPending(mta, pendingSize);
+                        storedPendingSize = 0;
+                    }
+                    for (byte[] v : unverified) {
+                        mta.add(v);
+                    }
+                    unverified.clear();
+                    mta.add(blockHash);
+                    unverifiedHash = null;
+                    updated = true;
+                } else {
+                    unverified.add(blockHash);
+                    unverifiedHash = blockHash;
+                }
+                if (isValidatorsUpdate) {
                     Validators nextValidators = blockUpdate.getNextValidators();
                     if (nextValidators == null) {
                         throw BMVException.invalidBlockUpdate("not exists next validator");
@@ -193,9 +272,9 @@ public class BTPMessageVerifier implements BMV {
                     }
                     validators = nextValidators;
                     validatorHash = nextValidatorHash;
-                    isValidatorsUpdate = true;
+                    state.setValidators(validators, validatorHash);
                 }
-                mta.add(blockHash);
+                height = blockHeight;
             } else if (nextHeight < blockHeight) {
                 throw BMVException.invalidBlockUpdateHeightHigher(
                         "invalid blockUpdate height "+blockHeight+" expected:"+nextHeight);
@@ -204,7 +283,10 @@ public class BTPMessageVerifier implements BMV {
                         "invalid blockUpdate height "+blockHeight+" expected:"+nextHeight);
             }
         }
-        return isValidatorsUpdate ? validators : null;
+        for (byte[] v : unverified) {
+            state.addPending(v);
+        }
+        return updated;
     }
 
     private void verifyBlockProof(BlockProof blockProof, MerkleTreeAccumulator mta) {
@@ -218,7 +300,7 @@ public class BTPMessageVerifier implements BMV {
             throw BMVException.invalidBlockProofHeightHigher(
                     "given block height is newer "+blockHeight+" expected:"+mta.getHeight());
         }
-        byte[] blockHash = hash(blockHeader.toBytes());
+        byte[] blockHash = hash(blockHeader.getBytes());
         try {
             mta.verify(blockWitness.getWitness(), blockHash, blockHeight, blockWitness.getHeight());
         } catch (MTAException.InvalidWitnessOldException e) {
@@ -240,30 +322,36 @@ public class BTPMessageVerifier implements BMV {
         voteMessage.setVoteType(VoteMessage.VOTE_TYPE_PRECOMMIT);
         voteMessage.setBlockId(blockHash);
         voteMessage.setPartSetId(votes.getPartSetId());
-        List<Address> addresses = new ArrayList<>();
+        VoteMessage.Template template = new VoteMessage.Template(voteMessage);
+        Address[] addresses = validators.getAddresses();
+        int quorum = addresses.length * 2 / 3 + 1;
+        long[] voted = new long[(addresses.length + 63) / 64];
+        int count = 0;
         for(Vote vote : votes.getItems()) {
-            voteMessage.setTimestamp(vote.getTimestamp());
-            byte[] voteMessageHash = hash(voteMessage.toBytes());
+            byte[] voteMessageHash = hash(template.toBytes(vote.getTimestamp()));
             Address address = recoverAddress(voteMessageHash, vote.getSignature(), true);
-            if (!validators.contains(address)) {
+            int idx = validators.indexOf(address);
+            if (idx < 0) {
                 logger.println("verifyVotes","invalidVotes", "invalid signature",
                         "messageHash:", StringUtil.toString(voteMessageHash),
                         "signature:", StringUtil.toString(vote.getSignature()),
                         "address:",  StringUtil.toString(address.toString()));
                 throw BMVException.invalidVotes("invalid signature");
             }
-            if (addresses.contains(address)) {
+            long bit = 1L << (idx % 64);
+            if ((voted[idx / 64] & bit) != 0) {
                 logger.println("verifyVotes","invalidVotes", "duplicated vote");
                 throw BMVException.invalidVotes("duplicated vote");
-            } else {
-                addresses.add(address);
+            }
+            voted[idx / 64] |= bit;
+            if (++count >= quorum) {
+                //remained votes are not verified
+                return;
             }
         }
 
-        if (addresses.size() <= (validators.getAddresses().length * 2 / 3)) {
-            logger.println("verifyVotes","invalidVotes", "require votes +2/3");
-            throw BMVException.invalidVotes("require votes +2/3");
-        }
+        logger.println("verifyVotes","invalidVotes", "require votes +2/3");
+        throw BMVException.invalidVotes("require votes +2/3");
     }
 
     private void checkAccessible(BTPAddress curAddr, BTPAddress fromAddr) {
@@ -279,12 +367,14 @@ public class BTPMessageVerifier implements BMV {
 
     @External(readonly = true)
     public BMVStatus getStatus() {
-        BMVProperties properties = getProperties();
-        MerkleTreeAccumulator mta = properties.getMta();
+        BMVState state = new BMVState();
+        MerkleTreeAccumulator mta = state.getMta();
         BMVStatus s = new BMVStatus();
         s.setHeight(mta.getHeight());
+        int pendingSize = state.getPendingSize();
         s.setExtra(new BMVStatusExtra(
-                mta.getOffset(), properties.getLastHeight()).toBytes());
+                mta.getOffset(), state.getLastHeight(),
+                pendingSize > 0 ? mta.getHeight() + pendingSize : 0).toBytes());
         return s;
     }
 
@@ -31,6 +31,8 @@ public class BlockHeader {
     private byte[] txHash;
     private byte[] logsBloom;
     private Result result;
+    //serialized bytes which is decoded from, not serialized
+    private byte[] bytes;
 
     public long getVersion() {
         return version;
@@ -120,6 +122,14 @@ public class BlockHeader {
         this.result = result;
     }
 
+    /**
+     * Returns the serialized bytes which is decoded from, to calculate the hash without encoding.
+     * If it's not decoded from bytes, returns {@link #toBytes()}.
+     */
+    public byte[] getBytes() {
+        return bytes != null ? bytes : toBytes();
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("BlockHeader{");
@@ -189,7 +199,9 @@ public class BlockHeader {
 
     public static BlockHeader fromBytes(byte[] bytes) {
         ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
-        return BlockHeader.readObject(reader);
+        BlockHeader obj = BlockHeader.readObject(reader);
+        obj.bytes = bytes;
+        return obj;
     }
 
     public byte[] toBytes() {
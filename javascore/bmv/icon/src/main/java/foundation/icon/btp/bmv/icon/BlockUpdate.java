@@ -69,8 +69,7 @@ public class BlockUpdate {
         reader.beginList();
         byte[] blockHeaderBytes = reader.readNullable(byte[].class);
         if (blockHeaderBytes != null) {
-            ObjectReader blockHeaderReader = Context.newByteArrayObjectReader("RLPn",blockHeaderBytes);
-            obj.setBlockHeader(blockHeaderReader.read(BlockHeader.class));
+            obj.setBlockHeader(BlockHeader.fromBytes(blockHeaderBytes));
         }
         byte[] votesBytes = reader.readNullable(byte[].class);
         if (votesBytes != null) {
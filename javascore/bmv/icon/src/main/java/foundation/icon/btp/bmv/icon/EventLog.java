@@ -16,6 +16,7 @@
 
 package foundation.icon.btp.bmv.icon;
 
+import foundation.icon.score.util.RLPUtil;
 import foundation.icon.score.util.StringUtil;
 import score.*;
 import scorex.util.ArrayList;
@@ -24,6 +25,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 public class EventLog {
+    public static final byte[] MESSAGE_SIGNATURE = "Message(str,int,bytes)".getBytes();
+
     private Address address;
     private byte[][] indexed;
     private byte[][] data;
@@ -68,6 +71,41 @@ public class EventLog {
         return null;
     }
 
+    /**
+     * Returns MessageEvent of the serialized EventLog, if it's Message event of the address.
+     * Address and signature are compared on the serialized bytes,
+     * so that other events are not decoded.
+     *
+     * @param address bytes of the address of BMC
+     * @return null if it's not Message event of the address
+     */
+    public static MessageEvent toMessageEvent(byte[] bytes, byte[] address) {
+        int[] offsets = RLPUtil.listItemOffsets(bytes, 0);
+        if (offsets.length != 3) {
+            throw new IllegalArgumentException("invalid EventLog");
+        }
+        if (!RLPUtil.contentEquals(bytes, offsets[0], address) ||
+                !RLPUtil.isList(bytes, offsets[1]) ||
+                RLPUtil.contentLength(bytes, offsets[1]) == 0 ||
+                !RLPUtil.contentEquals(bytes, RLPUtil.contentOffset(bytes, offsets[1]), MESSAGE_SIGNATURE)) {
+            return null;
+        }
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        reader.beginList();
+        reader.skip();
+        reader.beginList();
+        reader.skip();
+        MessageEvent evt = new MessageEvent();
+        evt.setNext(new String(reader.readByteArray()));
+        evt.setSeq(new BigInteger(reader.readByteArray()));
+        reader.end();
+        reader.beginList();
+        evt.setMsg(reader.readByteArray());
+        reader.end();
+        reader.end();
+        return evt;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("EventLog{");
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import score.ArrayDB;
+import score.Context;
+import score.DictDB;
+
+/**
+ * Cache of MerkleTreeAccumulator which is stored in ArrayDB as ring buffer,
+ * so that putting a hash writes only one entry.
+ * Index of hash is kept with suffix("index") for lookup, it's removed when the entry is overwritten.
+ */
+public class MTACache {
+    private final ArrayDB<byte[]> ring;
+    private final DictDB<byte[], Integer> indexes;
+
+    public MTACache(String id) {
+        this.ring = Context.newArrayDB(id, byte[].class);
+        this.indexes = Context.newDictDB(id + "|index", Integer.class);
+    }
+
+    private void removeIndex(byte[] hash, int idx) {
+        Integer i = indexes.get(hash);
+        if (i != null && i == idx) {
+            indexes.set(hash, null);
+        }
+    }
+
+    public int size() {
+        return ring.size();
+    }
+
+    public byte[] get(int idx) {
+        return ring.get(idx);
+    }
+
+    /**
+     * @param idx index of ring, it should be less than or equal to {@link #size()}
+     */
+    public void put(int idx, byte[] hash) {
+        if (idx == ring.size()) {
+            ring.add(hash);
+        } else {
+            removeIndex(ring.get(idx), idx);
+            ring.set(idx, hash);
+        }
+        indexes.set(hash, idx);
+    }
+
+    public boolean contains(byte[] hash) {
+        return indexes.get(hash) != null;
+    }
+
+    /**
+     * Sets indexes of the entries which are stored without index.
+     *
+     * @return the number of updated indexes
+     */
+    public int ensureIndexes() {
+        int cnt = 0;
+        int size = ring.size();
+        for (int i = 0; i < size; i++) {
+            byte[] hash = ring.get(i);
+            if (indexes.get(hash) == null) {
+                indexes.set(hash, i);
+                cnt++;
+            }
+        }
+        return cnt;
+    }
+
+    public void clear() {
+        int size = ring.size();
+        for (int i = size - 1; i >= 0; i--) {
+            removeIndex(ring.pop(), i);
+        }
+    }
+}
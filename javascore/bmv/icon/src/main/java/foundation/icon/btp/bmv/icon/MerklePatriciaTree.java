@@ -16,15 +16,23 @@
 
 package foundation.icon.btp.bmv.icon;
 
-import foundation.icon.score.util.ArrayUtil;
-import foundation.icon.score.util.StringUtil;
+import foundation.icon.score.util.RLPUtil;
 import score.ByteArrayObjectWriter;
 import score.Context;
-import score.ObjectReader;
 
-import java.util.Arrays;
+import java.util.Map;
 
+/**
+ * Proves the value of MPT with the list of serialized nodes.
+ * Nodes are traversed on the serialized bytes with the nibble offset of the key,
+ * so that only the item on the path is located and nothing is decoded except the proven value.
+ */
 public class MerklePatriciaTree {
+    private static final int BRANCH_SIZE = 17;
+    private static final int SHORT_SIZE = 2;
+    private static final int HASH_LENGTH = 32;
+    private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
+
     public static class MPTException extends RuntimeException {
         public MPTException(String message) {
             super(message);
@@ -42,164 +50,222 @@ public class MerklePatriciaTree {
     }
 
     public static byte[] prove(byte[] rootHash, byte[] key, byte[][] proofs) {
-        byte[] nibbles = bytesToNibbles(key, 0, null);
-        Node node = new Node(rootHash);
-        return node.prove(nibbles, proofs, 0);
+        return prove(rootHash, key, proofs, null, null);
     }
 
-    public static byte[] bytesToNibbles(byte[] bytes, int from, byte[] nibbles) {
-        int len = (bytes.length - from) * 2;
-        if (nibbles != null) {
-            len += nibbles.length;
+    /**
+     * Proves the key with proofs which could refer the node table,
+     * verified nodes are kept in the cache so that the shared nodes are hashed once.
+     *
+     * @param nodes node table, if it's not null, each element of proofs is the index of node table
+     * @param cache verified serialized nodes by hex string of hash, it could be null
+     */
+    public static byte[] prove(byte[] rootHash, byte[] key, byte[][] proofs, byte[][] nodes, Map<String, byte[]> cache) {
+        try {
+            return new Prover(key, proofs, nodes, cache).prove(rootHash);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new MPTException("decode failure, " + e.getMessage(), e);
         }
-        byte[] ret = new byte[len];
-        int j = 0;
-        if (nibbles != null) {
-            System.arraycopy(nibbles, 0, ret, 0, nibbles.length);
-            j = nibbles.length;
+    }
+
+    static byte[] resolveNode(byte[] proof, byte[][] nodes) {
+        if (nodes == null) {
+            return proof;
         }
-        for (int i = from; i < bytes.length; i++) {
-            ret[j++] = (byte)(bytes[i] >> 4 & 0x0F);
-            ret[j++] = (byte)(bytes[i] & 0x0F);
+        if (proof.length > 4) {
+            throw new MPTException("invalid node index");
         }
-        return ret;
+        int idx = 0;
+        for (byte b : proof) {
+            idx = (idx << 8) | (b & 0xff);
+        }
+        if (idx < 0 || idx >= nodes.length) {
+            throw new MPTException("out of range node index " + idx);
+        }
+        return nodes[idx];
     }
 
-    public static class Node {
-        private byte[] hash;
-        private byte[] nibbles;
-        private Node[] children;
-        private byte[] serialized;
-        private byte[] data;
-
-        public Node() {}
-
-        public Node(byte[] hash) {
-            this.hash = hash;
-        }
-
-        public static Node readObject(ObjectReader reader) {
-            Node obj = new Node();
-            reader.beginList();
-            Object[] arr = new Object[17];
-            int i = 0;
-            while(reader.hasNext()) {
-                try {
-                    arr[i] = reader.readByteArray();
-                } catch (IllegalStateException e) {
-                    if (i < 16) {
-                        arr[i] = readObject(reader);
-                    } else {
-                        throw new MPTException("decode failure, branchNode.data required byte[]");
-                    }
-                }
-                i++;
-            }
-            reader.end();
-            if (i == 2) {
-                if (arr[0] instanceof byte[] && arr[1] instanceof byte[]) {
-                    byte[] header = (byte[])arr[0];
-                    int prefix = header[0] & 0xF0;
-                    byte[] nibbles = null;
-                    if ((prefix & 0x10) != 0) {
-                        nibbles = new byte[]{(byte) (header[0] & 0x0F)};
-                    }
-                    obj.nibbles = bytesToNibbles(header, 1, nibbles);
-                    if ((prefix & 0x20) != 0) {
-                        obj.data = (byte[])arr[1];
-                    } else {
-                        Node node = new Node((byte[])arr[1]);
-                        obj.children = new Node[]{node};
-                    }
-                } else {
-                    throw new MPTException("decode failure, required byte[]");
-                }
-            } else if (i == 17){
-                obj.children = new Node[16];
-                for(int j = 0; j < 16; j++) {
-                    if (arr[j] instanceof Node) {
-                        obj.children[j] = (Node) arr[j];
-                    } else if (arr[j] instanceof byte[]) {
-                        byte[] bytes = (byte[]) arr[j];
-                        if (bytes.length > 0) {
-                            obj.children[j] = new Node(bytes);
-                        }
-                    } else {
-                        throw new MPTException("decode failure, required byte[] or Node");
-                    }
-                }
-                obj.data = (byte[])arr[16];
-            } else {
-                throw new MPTException("decode failure, invalid list length "+i);
+    static byte[] hash(byte[] bytes) {
+        return Context.hash("sha3-256",bytes);
+    }
+
+    static boolean matchBytes(byte[] a, byte[] b, int bOffset, int length) {
+        if (a.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[bOffset + i]) {
+                return false;
             }
-            return obj;
+        }
+        return true;
+    }
+
+    static String toHex(byte[] bytes, int offset, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int v = bytes[offset + i] & 0xff;
+            chars[i * 2] = HEX_ARRAY[v >>> 4];
+            chars[i * 2 + 1] = HEX_ARRAY[v & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Walks nodes with the cursor which consists of the serialized node(bytes),
+     * the offset of the current item in bytes and the nibble offset of the key.
+     */
+    static class Prover {
+        private final byte[] key;
+        private final int keyNibbles;
+        private final byte[][] proofs;
+        private final byte[][] nodes;
+        private final Map<String, byte[]> cache;
+        private int proofIdx;
+        private int pos;
+        private byte[] bytes;
+
+        Prover(byte[] key, byte[][] proofs, byte[][] nodes, Map<String, byte[]> cache) {
+            this.key = key;
+            this.keyNibbles = key.length * 2;
+            this.proofs = proofs;
+            this.nodes = nodes;
+            this.cache = cache;
         }
 
-        public static Node fromBytes(byte[] bytes) {
-            ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
-            return readObject(reader);
+        private int keyNibble(int i) {
+            int b = key[i >> 1];
+            return (i & 1) == 0 ? (b >> 4) & 0x0f : b & 0x0f;
         }
 
-        public byte[] prove(byte[] nibbles, byte[][] proofs, int i) {
-            if (isHash()) {
-                byte[] serialized = proofs[i];
-                byte[] hash = hash(serialized);
-                if (!Arrays.equals(this.hash, hash)) {
+        /**
+         * Loads the serialized node which has the hash located at offset of hashBytes
+         */
+        private void load(byte[] hashBytes, int offset, int length) {
+            String hexKey = cache == null ? null : toHex(hashBytes, offset, length);
+            byte[] serialized = hexKey == null ? null : cache.get(hexKey);
+            if (serialized == null) {
+                if (proofIdx >= proofs.length) {
+                    throw new MPTException("not enough proofs");
+                }
+                serialized = resolveNode(proofs[proofIdx], nodes);
+                if (!matchBytes(hash(serialized), hashBytes, offset, length)) {
                     throw new MPTException("mismatch hash");
                 }
-                Node node = Node.fromBytes(serialized);
-                node.hash = hash;
-                node.serialized = serialized;
-                return node.prove(nibbles, proofs, i+1);
-            } else if (isExtension()) {
-                int cnt = ArrayUtil.matchCount(this.nibbles, nibbles);
-                if (cnt < this.nibbles.length) {
-                    throw new MPTException("mismatch nibbles on extension");
+                if (cache != null) {
+                    cache.put(hexKey, serialized);
+                }
+            }
+            proofIdx++;
+            bytes = serialized;
+        }
+
+        byte[] prove(byte[] rootHash) {
+            load(rootHash, 0, rootHash.length);
+            int offset = 0;
+            while (true) {
+                if (!RLPUtil.isList(bytes, offset)) {
+                    throw new MPTException("decode failure, required list");
+                }
+                int from = RLPUtil.contentOffset(bytes, offset);
+                int end = offset + RLPUtil.itemLength(bytes, offset);
+                int size = 0;
+                for (int p = from; p < end; p += RLPUtil.itemLength(bytes, p)) {
+                    size++;
                 }
-                return children[0].prove(Arrays.copyOfRange(nibbles, cnt, nibbles.length), proofs, i);
-            } else if (isBranch()) {
-                if(nibbles.length == 0) {
-                    return data;
+                int child;
+                if (size == BRANCH_SIZE) {
+                    if (pos == keyNibbles) {
+                        return content(itemAt(from, BRANCH_SIZE - 1));
+                    }
+                    child = itemAt(from, keyNibble(pos++));
+                } else if (size == SHORT_SIZE) {
+                    int header = itemAt(from, 0);
+                    if (RLPUtil.isList(bytes, header)) {
+                        throw new MPTException("decode failure, required byte[]");
+                    }
+                    boolean leaf = matchPath(header);
+                    child = itemAt(from, 1);
+                    if (leaf) {
+                        if (pos != keyNibbles) {
+                            throw new MPTException("mismatch nibbles on leaf");
+                        }
+                        return content(child);
+                    }
                 } else {
-                    Node node = children[nibbles[0]];
-                    return node.prove(Arrays.copyOfRange(nibbles, 1, nibbles.length), proofs, i);
+                    throw new MPTException("decode failure, invalid list length " + size);
                 }
-            } else {
-                int cnt = ArrayUtil.matchCount(this.nibbles, nibbles);
-                if (cnt < nibbles.length) {
-                    throw new MPTException("mismatch nibbles on leaf");
+                if (RLPUtil.isList(bytes, child)) {
+                    offset = child;
+                } else {
+                    int len = RLPUtil.contentLength(bytes, child);
+                    if (len == 0) {
+                        throw new MPTException("not found");
+                    }
+                    if (len != HASH_LENGTH) {
+                        throw new MPTException("decode failure, invalid hash length " + len);
+                    }
+                    load(bytes, RLPUtil.contentOffset(bytes, child), len);
+                    offset = 0;
                 }
-                return data;
             }
         }
 
-        static byte[] hash(byte[] bytes) {
-            return Context.hash("sha3-256",bytes);
-        }
-
-        private boolean isHash() {
-            return hash.length > 0 && serialized == null;
+        private int itemAt(int from, int idx) {
+            int p = from;
+            for (int i = 0; i < idx; i++) {
+                p += RLPUtil.itemLength(bytes, p);
+            }
+            return p;
         }
 
-        private boolean isExtension() {
-            return children != null && children.length == 1;
+        private byte[] content(int offset) {
+            if (RLPUtil.isList(bytes, offset)) {
+                throw new MPTException("decode failure, required byte[]");
+            }
+            int from = RLPUtil.contentOffset(bytes, offset);
+            int len = RLPUtil.contentLength(bytes, offset);
+            byte[] ret = new byte[len];
+            System.arraycopy(bytes, from, ret, 0, len);
+            return ret;
         }
 
-        private boolean isBranch() {
-            return children != null && children.length == 16;
+        /**
+         * Compares the compact encoded path of the header at offset with the key from the nibble offset,
+         * and moves the nibble offset to the end of the path.
+         *
+         * @return whether the node is leaf
+         */
+        private boolean matchPath(int offset) {
+            int from = RLPUtil.contentOffset(bytes, offset);
+            int len = RLPUtil.contentLength(bytes, offset);
+            if (len == 0) {
+                throw new MPTException("decode failure, empty path");
+            }
+            int prefix = bytes[from] & 0xF0;
+            boolean leaf = (prefix & 0x20) != 0;
+            int n = (len - 1) * 2;
+            if ((prefix & 0x10) != 0) {
+                if (pos >= keyNibbles || (bytes[from] & 0x0F) != keyNibble(pos)) {
+                    throw mismatchPath(leaf);
+                }
+                pos++;
+            }
+            if (pos + n > keyNibbles) {
+                throw mismatchPath(leaf);
+            }
+            for (int i = 0; i < n; i++) {
+                int b = bytes[from + 1 + (i >> 1)];
+                int nibble = (i & 1) == 0 ? (b >> 4) & 0x0F : b & 0x0F;
+                if (nibble != keyNibble(pos++)) {
+                    throw mismatchPath(leaf);
+                }
+            }
+            return leaf;
         }
 
-        @Override
-        public String toString() {
-            final StringBuilder sb = new StringBuilder("Node{");
-            sb.append("hash=").append(StringUtil.toString(hash));
-            sb.append(", nibbles=").append(StringUtil.toString(nibbles));
-            sb.append(", children=").append(StringUtil.toString(children));
-            sb.append(", serialized=").append(StringUtil.toString(serialized));
-            sb.append(", data=").append(StringUtil.toString(data));
-            sb.append('}');
-            return sb.toString();
+        private static MPTException mismatchPath(boolean leaf) {
+            return new MPTException(leaf ? "mismatch nibbles on leaf" : "mismatch nibbles on extension");
         }
     }
-
 }
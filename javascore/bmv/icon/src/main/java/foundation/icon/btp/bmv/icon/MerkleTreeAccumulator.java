@@ -39,6 +39,8 @@ public class MerkleTreeAccumulator {
     private Boolean allowNewerWitness;
     //
     private Integer cacheIdx;
+    //stored separately instead of cache if it's set, not serialized
+    private MTACache cacheDB;
 
     public long getOffset() {
         return offset;
@@ -96,6 +98,26 @@ public class MerkleTreeAccumulator {
         this.cache = cache;
     }
 
+    public MTACache getCacheDB() {
+        return cacheDB;
+    }
+
+    /**
+     * Sets the storage of cache, cached hashes are moved to the storage
+     */
+    public void setCacheDB(MTACache cacheDB) {
+        if (cache != null) {
+            for (int i = 0; i < cache.length; i++) {
+                if (cache[i] == null) {
+                    break;
+                }
+                cacheDB.put(i, cache[i]);
+            }
+            cache = null;
+        }
+        this.cacheDB = cacheDB;
+    }
+
     public Boolean getAllowNewerWitness() {
         return allowNewerWitness;
     }
@@ -263,6 +285,10 @@ public class MerkleTreeAccumulator {
      * call after update cacheSize
      */
     public void ensureCache() {
+        if (cacheDB != null) {
+            ensureCacheDB();
+            return;
+        }
         if (isCacheEnabled()) {
             if (cache == null) {
                 cache = new byte[cacheSize][];
@@ -295,7 +321,32 @@ public class MerkleTreeAccumulator {
         }
     }
 
+    private void ensureCacheDB() {
+        int len = cacheDB.size();
+        int size = isCacheEnabled() ? cacheSize : 0;
+        int idx = cacheIdx == null ? 0 : cacheIdx;
+        if (len == size || (len < size && idx == len)) {
+            return;
+        }
+        //the oldest is at cacheIdx if the ring is wrapped
+        int start = idx < len ? idx : 0;
+        //rearrange from the oldest, keeping the newest
+        int cnt = Math.min(len, size);
+        byte[][] values = new byte[cnt][];
+        for (int i = 0; i < cnt; i++) {
+            values[i] = cacheDB.get((start + len - cnt + i) % len);
+        }
+        cacheDB.clear();
+        for (int i = 0; i < cnt; i++) {
+            cacheDB.put(i, values[i]);
+        }
+        cacheIdx = size == 0 ? null : cnt % size;
+    }
+
     private boolean hasCache(byte[] hash) {
+        if (cacheDB != null) {
+            return isCacheEnabled() && cacheDB.contains(hash);
+        }
         if (isCacheEnabled()) {
             for (byte[] v : cache) {
                 if (Arrays.equals(v, hash)) {
@@ -307,7 +358,13 @@ public class MerkleTreeAccumulator {
     }
 
     private void putCache(byte[] hash) {
-        if (isCacheEnabled()) {
+        if (cacheDB != null) {
+            if (isCacheEnabled()) {
+                int idx = cacheIdx == null ? 0 : cacheIdx;
+                cacheDB.put(idx++, hash);
+                cacheIdx = idx >= cacheSize ? 0 : idx;
+            }
+        } else if (isCacheEnabled()) {
             cache[cacheIdx++] = hash;
             if (cacheIdx >= cache.length) {
                 cacheIdx = 0;
@@ -16,6 +16,7 @@
 
 package foundation.icon.btp.bmv.icon;
 
+import foundation.icon.score.util.RLPUtil;
 import foundation.icon.score.util.StringUtil;
 import score.ByteArrayObjectWriter;
 import score.Context;
@@ -26,6 +27,8 @@ import scorex.util.ArrayList;
 import java.util.List;
 
 public class Receipt {
+    static final int INDEX_EVENT_LOGS_HASH = 8;
+
     private long status;
     private byte[] to;
     private byte[] cumulativeStepUsed;
@@ -124,6 +127,25 @@ public class Receipt {
         return sb.toString();
     }
 
+    /**
+     * Returns eventLogsHash of the serialized Receipt without decoding other fields.
+     */
+    public static byte[] eventLogsHash(byte[] bytes) {
+        int[] offsets = RLPUtil.listItemOffsets(bytes, 0);
+        if (offsets.length <= INDEX_EVENT_LOGS_HASH) {
+            throw new IllegalArgumentException("invalid Receipt");
+        }
+        int offset = offsets[INDEX_EVENT_LOGS_HASH];
+        if (RLPUtil.isNull(bytes, offset)) {
+            return null;
+        }
+        int from = RLPUtil.contentOffset(bytes, offset);
+        int len = RLPUtil.contentLength(bytes, offset);
+        byte[] eventLogsHash = new byte[len];
+        System.arraycopy(bytes, from, eventLogsHash, 0, len);
+        return eventLogsHash;
+    }
+
     public static void writeObject(ObjectWriter writer, Receipt obj) {
         obj.writeObject(writer);
     }
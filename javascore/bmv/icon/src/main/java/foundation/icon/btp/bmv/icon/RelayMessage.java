@@ -25,10 +25,16 @@ import scorex.util.ArrayList;
 
 import java.util.List;
 
+/**
+ * RelayMessage has optional proofNodes as the node table of MPT proofs.
+ * If proofNodes is not null, each element of proofs in ReceiptProof and event MPTProof
+ * is the index of proofNodes, so that the shared nodes are sent once.
+ */
 public class RelayMessage {
     private BlockUpdate[] blockUpdates;
     private BlockProof blockProof;
     private ReceiptProof[] receiptProofs;
+    private byte[][] proofNodes;
 
     public BlockUpdate[] getBlockUpdates() {
         return blockUpdates;
@@ -54,12 +60,21 @@ public class RelayMessage {
         this.receiptProofs = receiptProofs;
     }
 
+    public byte[][] getProofNodes() {
+        return proofNodes;
+    }
+
+    public void setProofNodes(byte[][] proofNodes) {
+        this.proofNodes = proofNodes;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("RelayMessage{");
         sb.append("blockUpdates=").append(StringUtil.toString(blockUpdates));
         sb.append(", blockProof=").append(blockProof);
         sb.append(", receiptProofs=").append(StringUtil.toString(receiptProofs));
+        sb.append(", proofNodes=").append(StringUtil.toString(proofNodes));
         sb.append('}');
         return sb.toString();
     }
@@ -114,12 +129,25 @@ public class RelayMessage {
             obj.setReceiptProofs(receiptProofs);
             reader.end();
         }
+        if (reader.hasNext() && reader.beginNullableList()) {
+            List<byte[]> proofNodesList = new ArrayList<>();
+            while(reader.hasNext()) {
+                proofNodesList.add(reader.readByteArray());
+            }
+            byte[][] proofNodes = new byte[proofNodesList.size()][];
+            for(int i=0; i<proofNodesList.size(); i++) {
+                proofNodes[i] = proofNodesList.get(i);
+            }
+            obj.setProofNodes(proofNodes);
+            reader.end();
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(3);
+        byte[][] proofNodes = this.getProofNodes();
+        writer.beginList(proofNodes != null ? 4 : 3);
         BlockUpdate[] blockUpdates = this.getBlockUpdates();
         if (blockUpdates != null) {
             writer.beginNullableList(blockUpdates.length);
@@ -160,6 +188,13 @@ public class RelayMessage {
         } else {
             writer.writeNull();
         }
+        if (proofNodes != null) {
+            writer.beginList(proofNodes.length);
+            for(byte[] v : proofNodes) {
+                writer.write(v);
+            }
+            writer.end();
+        }
         writer.end();
     }
 
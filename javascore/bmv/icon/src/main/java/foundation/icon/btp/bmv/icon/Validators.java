@@ -20,11 +20,15 @@ import foundation.icon.score.util.StringUtil;
 import score.*;
 import scorex.util.ArrayList;
 import scorex.util.Base64;
+import scorex.util.HashMap;
 
 import java.util.List;
+import java.util.Map;
 
 public class Validators {
     private Address[] addresses;
+    //address => index of addresses, not serialized
+    private Map<Address, Integer> indexes;
 
     public Address[] getAddresses() {
         return addresses;
@@ -32,15 +36,27 @@ public class Validators {
 
     public void setAddresses(Address[] addresses) {
         this.addresses = addresses;
+        this.indexes = null;
     }
 
-    public boolean contains(Address target) {
-        for(Address address : addresses) {
-            if (address.equals(target)){
-                return true;
+    /**
+     * Returns the index of the address, the map of indexes is built on the first call.
+     *
+     * @return index of the address, or -1 if not exists
+     */
+    public int indexOf(Address target) {
+        if (indexes == null) {
+            indexes = new HashMap<>();
+            for (int i = 0; i < addresses.length; i++) {
+                indexes.put(addresses[i], i);
             }
         }
-        return false;
+        Integer idx = indexes.get(target);
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean contains(Address target) {
+        return indexOf(target) >= 0;
     }
 
     /**
@@ -16,6 +16,7 @@
 
 package foundation.icon.btp.bmv.icon;
 
+import foundation.icon.score.util.RLPUtil;
 import foundation.icon.score.util.StringUtil;
 import score.ByteArrayObjectWriter;
 import score.Context;
@@ -23,6 +24,7 @@ import score.ObjectReader;
 import score.ObjectWriter;
 
 public class VoteMessage {
+    static final int INDEX_TIMESTAMP = 5;
     public static final long VOTE_TYPE_PRECOMMIT = 1;
     private long height;
     private long round;
@@ -131,4 +133,33 @@ public class VoteMessage {
         VoteMessage.writeObject(writer, this);
         return writer.toByteArray();
     }
+
+    /**
+     * Encoder of VoteMessages which are different only in timestamp.
+     * The fields except timestamp are encoded once, and concatenated with the encoded timestamp.
+     */
+    public static class Template {
+        private final byte[] prefix;
+
+        public Template(VoteMessage voteMessage) {
+            byte[] bytes = voteMessage.toBytes();
+            int[] offsets = RLPUtil.listItemOffsets(bytes, 0);
+            int from = offsets[0];
+            int len = offsets[INDEX_TIMESTAMP] - from;
+            prefix = new byte[len];
+            System.arraycopy(bytes, from, prefix, 0, len);
+        }
+
+        public byte[] toBytes(long timestamp) {
+            ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+            writer.write(timestamp);
+            byte[] timestampBytes = writer.toByteArray();
+            int contentLen = prefix.length + timestampBytes.length;
+            byte[] bytes = new byte[RLPUtil.listHeaderLength(contentLen) + contentLen];
+            int pos = RLPUtil.writeListHeader(bytes, 0, contentLen);
+            System.arraycopy(prefix, 0, bytes, pos, prefix.length);
+            System.arraycopy(timestampBytes, 0, bytes, pos + prefix.length, timestampBytes.length);
+            return bytes;
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import foundation.icon.btp.lib.BMVStatus;
+import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.test.BTPIntegrationTest;
+import org.junit.jupiter.api.Test;
+import score.Address;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+import score.UserRevertedException;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BMVStateMigrationTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final Account bmcAccount = Account.newScoreAccount(Integer.MAX_VALUE);
+    static final BTPAddress bmc = new BTPAddress(BTPIntegrationTest.Faker.btpNetwork(),
+            bmcAccount.getAddress().toString());
+    static final BTPAddress prev = BTPIntegrationTest.Faker.btpLink();
+    static final long OFFSET = 10;
+    static final long LAST_HEIGHT = 100;
+    static final int CACHE_SIZE = 4;
+    static final int NUM_OF_BLOCKS = 3;
+
+    /**
+     * BMVProperties which is serialized in legacy format [bmc, net, lastHeight, validators, mta]
+     */
+    public static class LegacyProperties {
+        final Address bmc;
+        final String net;
+        final long lastHeight;
+        final Validators validators;
+        final MerkleTreeAccumulator mta;
+
+        LegacyProperties(Address bmc, String net, long lastHeight, Validators validators, MerkleTreeAccumulator mta) {
+            this.bmc = bmc;
+            this.net = net;
+            this.lastHeight = lastHeight;
+            this.validators = validators;
+            this.mta = mta;
+        }
+
+        public static void writeObject(ObjectWriter writer, LegacyProperties obj) {
+            writer.beginList(5);
+            writer.writeNullable(obj.bmc);
+            writer.writeNullable(obj.net);
+            writer.write(obj.lastHeight);
+            writer.writeNullable(obj.validators);
+            writer.writeNullable(obj.mta);
+            writer.end();
+        }
+
+        public static LegacyProperties readObject(ObjectReader reader) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * BMV which is deployed over the properties stored by the previous version,
+     * the legacy properties are written before the constructor of BTPMessageVerifier.
+     */
+    public static class LegacyBMV extends BTPMessageVerifier {
+        public LegacyBMV(Address _bmc, String _net, String _validators, long _offset,
+                         long _lastHeight, byte[] _mta) {
+            super(putLegacyProperties(_bmc, _net, _validators, _lastHeight, _mta), _net, _validators, _offset);
+        }
+
+        static Address putLegacyProperties(Address _bmc, String _net, String _validators,
+                                           long _lastHeight, byte[] _mta) {
+            Context.newVarDB("properties", LegacyProperties.class).set(new LegacyProperties(
+                    _bmc, _net, _lastHeight, Validators.fromString(_validators),
+                    MerkleTreeAccumulator.fromBytes(_mta)));
+            return _bmc;
+        }
+    }
+
+    static byte[] toRelayMessage(BlockHeader blockHeader, long witnessHeight) {
+        BlockWitness blockWitness = new BlockWitness();
+        blockWitness.setHeight(witnessHeight);
+        blockWitness.setWitness(new byte[0][]);
+        BlockProof blockProof = new BlockProof();
+        blockProof.setBlockHeader(blockHeader);
+        blockProof.setBlockWitness(blockWitness);
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setBlockProof(blockProof);
+        return relayMessage.toBytes();
+    }
+
+    @Test
+    void migrateLegacyProperties() throws Exception {
+        SourceChain chain = new SourceChain(4, OFFSET);
+        MerkleTreeAccumulator mta = new MerkleTreeAccumulator();
+        mta.setHeight(OFFSET);
+        mta.setOffset(OFFSET);
+        mta.setCacheSize(CACHE_SIZE);
+        mta.ensureCache();
+        BlockHeader[] blockHeaders = new BlockHeader[NUM_OF_BLOCKS];
+        for (int i = 0; i < NUM_OF_BLOCKS; i++) {
+            blockHeaders[i] = chain.next();
+            mta.add(SourceChain.hash(blockHeaders[i]));
+        }
+        Score score = sm.deploy(owner, LegacyBMV.class,
+                bmcAccount.getAddress(), prev.net(), chain.validatorsString(), OFFSET,
+                LAST_HEIGHT, mta.toBytes());
+
+        BMVStatus status = (BMVStatus) score.call("getStatus");
+        assertEquals(OFFSET + NUM_OF_BLOCKS, status.getHeight());
+        BMVStatusExtra extra = BMVStatusExtra.fromBytes(status.getExtra());
+        assertEquals(OFFSET, extra.getOffset());
+        assertEquals(LAST_HEIGHT, extra.getLastHeight());
+
+        //cached hashes of the legacy MerkleTreeAccumulator are moved to MTACache
+        long witnessHeight = OFFSET + 1;
+        sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(), "handleRelayMessage",
+                bmc.toString(), prev.toString(), BigInteger.ZERO,
+                toRelayMessage(blockHeaders[0], witnessHeight));
+        byte[] conflict = toRelayMessage(chain.fork(blockHeaders[0].getHeight(), null), witnessHeight);
+        UserRevertedException e = assertThrows(UserRevertedException.class, () ->
+                sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(), "handleRelayMessage",
+                        bmc.toString(), prev.toString(), BigInteger.ZERO, conflict));
+        assertTrue(e.getMessage().contains("invalid old witness"), e.getMessage());
+
+        //following BlockHeader is verified by validators and added to the migrated MerkleTreeAccumulator
+        BlockHeader blockHeader = chain.next();
+        sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(), "handleRelayMessage",
+                bmc.toString(), prev.toString(), BigInteger.ZERO,
+                SourceChain.toRelayMessage(
+                        SourceChain.newBlockUpdate(blockHeader, chain.votes(blockHeader), null)));
+        status = (BMVStatus) score.call("getStatus");
+        assertEquals(blockHeader.getHeight(), status.getHeight());
+        assertEquals(LAST_HEIGHT, BMVStatusExtra.fromBytes(status.getExtra()).getLastHeight());
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import foundation.icon.btp.lib.BMVStatus;
+import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.test.BTPIntegrationTest;
+import foundation.icon.icx.KeyWallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import score.Address;
+import score.UserRevertedException;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BTPMessageVerifierUnitTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final Account bmcAccount = Account.newScoreAccount(Integer.MAX_VALUE);
+    static final BTPAddress bmc = new BTPAddress(BTPIntegrationTest.Faker.btpNetwork(),
+            bmcAccount.getAddress().toString());
+    static final BTPAddress prev = BTPIntegrationTest.Faker.btpLink();
+    static final long OFFSET = 10;
+
+    Score score;
+    SourceChain chain;
+
+    @BeforeEach
+    void setup() throws Exception {
+        chain = new SourceChain(4, OFFSET);
+        score = sm.deploy(owner, BTPMessageVerifier.class,
+                bmcAccount.getAddress(), prev.net(), chain.validatorsString(), OFFSET);
+    }
+
+    byte[][] handleRelayMessage(BigInteger seq, byte[] msg) {
+        return (byte[][]) sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(),
+                "handleRelayMessage",
+                bmc.toString(), prev.toString(), seq, msg);
+    }
+
+    byte[][] handleRelayMessage(byte[] msg) {
+        return handleRelayMessage(BigInteger.ZERO, msg);
+    }
+
+    BMVStatus getStatus() {
+        return (BMVStatus) score.call("getStatus");
+    }
+
+    static void assertReverted(String message, Executable executable) {
+        UserRevertedException e = assertThrows(UserRevertedException.class, executable);
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    @Test
+    void blockUpdateWithQuorum() {
+        BlockHeader blockHeader = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(blockHeader, chain.votes(blockHeader), null)));
+        assertEquals(blockHeader.getHeight(), getStatus().getHeight());
+    }
+
+    @Test
+    void votesAfterQuorumAreNotVerified() {
+        BlockHeader blockHeader = chain.next();
+        Votes votes = chain.votes(blockHeader);
+        Vote[] items = new Vote[votes.getItems().length + 1];
+        System.arraycopy(votes.getItems(), 0, items, 0, votes.getItems().length);
+        Vote invalid = new Vote();
+        invalid.setTimestamp(blockHeader.getTimestamp());
+        invalid.setSignature(new byte[65]);
+        items[items.length - 1] = invalid;
+        votes.setItems(items);
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(blockHeader, votes, null)));
+        assertEquals(blockHeader.getHeight(), getStatus().getHeight());
+    }
+
+    @Test
+    void blockUpdateBelowQuorum() {
+        BlockHeader blockHeader = chain.next();
+        byte[] msg = SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(blockHeader, chain.votes(blockHeader, 2), null));
+        assertReverted("require votes +2/3", () -> handleRelayMessage(msg));
+        assertEquals(OFFSET, getStatus().getHeight());
+    }
+
+    @Test
+    void blockUpdateWithDuplicatedVote() {
+        BlockHeader blockHeader = chain.next();
+        KeyWallet[] wallets = chain.getWallets();
+        byte[] msg = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(blockHeader,
+                SourceChain.newVotes(blockHeader, wallets[0], wallets[1], wallets[0]), null));
+        assertReverted("duplicated vote", () -> handleRelayMessage(msg));
+    }
+
+    @Test
+    void blockUpdateWithUnknownSigner() {
+        BlockHeader blockHeader = chain.next();
+        KeyWallet[] wallets = chain.getWallets();
+        KeyWallet unknown = SourceChain.newWallets(1)[0];
+        byte[] msg = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(blockHeader,
+                SourceChain.newVotes(blockHeader, wallets[0], unknown, wallets[1]), null));
+        assertReverted("invalid signature", () -> handleRelayMessage(msg));
+    }
+
+    @Test
+    void blockUpdateWithValidatorsChange() {
+        KeyWallet[] prevWallets = chain.getWallets();
+        chain.setValidators(SourceChain.newWallets(7));
+        BlockHeader blockHeader = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(blockHeader,
+                SourceChain.newVotes(blockHeader, Arrays.copyOf(prevWallets, 3)), chain.getValidators())));
+        assertEquals(blockHeader.getHeight(), getStatus().getHeight());
+
+        BlockHeader next = chain.next();
+        byte[] votedByPrev = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(next,
+                SourceChain.newVotes(next, Arrays.copyOf(prevWallets, 3)), null));
+        assertReverted("invalid signature", () -> handleRelayMessage(votedByPrev));
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(next, chain.votes(next), null)));
+        assertEquals(next.getHeight(), getStatus().getHeight());
+    }
+
+    @Test
+    void blockUpdateWithoutNextValidators() {
+        KeyWallet[] prevWallets = chain.getWallets();
+        chain.setValidators(SourceChain.newWallets(4));
+        BlockHeader blockHeader = chain.next();
+        byte[] msg = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(blockHeader,
+                SourceChain.newVotes(blockHeader, Arrays.copyOf(prevWallets, 3)), null));
+        assertReverted("not exists next validator", () -> handleRelayMessage(msg));
+    }
+
+    @Test
+    void blockUpdateWithInvalidNextValidators() {
+        KeyWallet[] prevWallets = chain.getWallets();
+        chain.setValidators(SourceChain.newWallets(4));
+        BlockHeader blockHeader = chain.next();
+        Validators invalid = SourceChain.newValidators(SourceChain.newWallets(4));
+        byte[] msg = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(blockHeader,
+                SourceChain.newVotes(blockHeader, Arrays.copyOf(prevWallets, 3)), invalid));
+        assertReverted("invalid next validator hash", () -> handleRelayMessage(msg));
+    }
+
+    @Test
+    void blockUpdateWithValidatorsChangeRequiresVotes() {
+        chain.setValidators(SourceChain.newWallets(4));
+        BlockHeader blockHeader = chain.next();
+        byte[] msg = SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(blockHeader, null, chain.getValidators()));
+        assertReverted("not exists votes", () -> handleRelayMessage(msg));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 0x7f, 0x80, 0xff, 0x100, 1_660_000_000_000_000L, Long.MAX_VALUE})
+    void voteMessageTemplate(long timestamp) {
+        BlockHeader blockHeader = chain.next();
+        VoteMessage voteMessage = new VoteMessage();
+        voteMessage.setHeight(blockHeader.getHeight());
+        voteMessage.setRound(1);
+        voteMessage.setVoteType(VoteMessage.VOTE_TYPE_PRECOMMIT);
+        voteMessage.setBlockId(SourceChain.hash(blockHeader));
+        voteMessage.setPartSetId(SourceChain.PART_SET_ID);
+        VoteMessage.Template template = new VoteMessage.Template(voteMessage);
+        voteMessage.setTimestamp(timestamp);
+        assertArrayEquals(voteMessage.toBytes(), template.toBytes(timestamp));
+    }
+
+    @Test
+    void blockHeaderBytes() {
+        BlockHeader blockHeader = chain.next(BTPMessageVerifier.hash("receipts".getBytes()));
+        byte[] bytes = blockHeader.toBytes();
+        BlockHeader decoded = BlockHeader.fromBytes(bytes);
+        assertSame(bytes, decoded.getBytes());
+        assertArrayEquals(bytes, decoded.toBytes());
+        assertArrayEquals(blockHeader.getResult().getReceiptHash(), decoded.getResult().getReceiptHash());
+    }
+
+    @Test
+    void catchUpWithoutIntermediateVotes() {
+        BlockHeader first = chain.next();
+        BlockHeader second = chain.next();
+        BlockHeader last = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(first, null, null),
+                SourceChain.newBlockUpdate(second, null, null),
+                SourceChain.newBlockUpdate(last, chain.votes(last), null)));
+        assertEquals(last.getHeight(), getStatus().getHeight());
+    }
+
+    @Test
+    void catchUpWithBrokenLink() {
+        BlockHeader first = chain.next();
+        BlockHeader forked = chain.fork(first.getHeight() + 1, BTPMessageVerifier.hash("unknown".getBytes()));
+        byte[] msg = SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(first, null, null),
+                SourceChain.newBlockUpdate(forked, chain.votes(forked), null));
+        assertReverted("invalid prevHash", () -> handleRelayMessage(msg));
+        assertEquals(OFFSET, getStatus().getHeight());
+    }
+
+    @Test
+    void blockUpdateWithInvalidHeight() {
+        BlockHeader first = chain.next();
+        BlockHeader second = chain.next();
+        byte[] higher = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(second, chain.votes(second), null));
+        assertReverted("invalid blockUpdate height", () -> handleRelayMessage(higher));
+
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(first, chain.votes(first), null)));
+        byte[] lower = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(first, chain.votes(first), null));
+        assertReverted("invalid blockUpdate height", () -> handleRelayMessage(lower));
+    }
+
+    static EventLog newEventLog(Address address, byte[] signature, String next, long seq, byte[] msg) {
+        EventLog eventLog = new EventLog();
+        eventLog.setAddress(address);
+        eventLog.setIndexed(new byte[][]{signature, next.getBytes(), BigInteger.valueOf(seq).toByteArray()});
+        eventLog.setData(new byte[][]{msg});
+        return eventLog;
+    }
+
+    static EventLog[] newEventLogs() {
+        Address prevBMC = Address.fromString(prev.account());
+        return new EventLog[]{
+                newEventLog(prevBMC, EventLog.MESSAGE_SIGNATURE, bmc.toString(), 1, "first".getBytes()),
+                newEventLog(sm.createAccount().getAddress(), EventLog.MESSAGE_SIGNATURE, bmc.toString(), 2,
+                        "other address".getBytes()),
+                newEventLog(prevBMC, "Other(str,int,bytes)".getBytes(), bmc.toString(), 2, "other event".getBytes()),
+                newEventLog(prevBMC, EventLog.MESSAGE_SIGNATURE, bmc.toString(), 2, "second".getBytes())
+        };
+    }
+
+    static Receipt newReceipt(EventLog[] eventLogs, byte[] eventLogsHash) {
+        Receipt receipt = new Receipt();
+        receipt.setStatus(1);
+        receipt.setStepUsed(BigInteger.valueOf(100).toByteArray());
+        receipt.setEventLogs(eventLogs);
+        receipt.setEventLogsHash(eventLogsHash);
+        return receipt;
+    }
+
+    static Proofs newProofs(byte[][] proofs) {
+        Proofs ret = new Proofs();
+        ret.setProofs(proofs);
+        return ret;
+    }
+
+    /**
+     * Returns RelayMessage which has the BlockUpdate with receiptHash,
+     * and the proof of the receipt at index 1 of two receipts.
+     */
+    byte[] receiptRelayMessage(Receipt receipt, MPTProof[] eventProofs) {
+        MPTBuilder receipts = new MPTBuilder()
+                .put(MerklePatriciaTree.encodeKey(0), newReceipt(new EventLog[0], null).toBytes())
+                .put(MerklePatriciaTree.encodeKey(1), receipt.toBytes());
+        BlockHeader blockHeader = chain.next(receipts.getRootHash());
+        ReceiptProof receiptProof = new ReceiptProof();
+        receiptProof.setIndex(1);
+        receiptProof.setProofs(newProofs(receipts.getProofs(MerklePatriciaTree.encodeKey(1))));
+        receiptProof.setEventProofs(eventProofs);
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setBlockUpdates(new BlockUpdate[]{
+                SourceChain.newBlockUpdate(blockHeader, chain.votes(blockHeader), null)});
+        relayMessage.setReceiptProofs(new ReceiptProof[]{receiptProof});
+        return relayMessage.toBytes();
+    }
+
+    byte[] eventProofsRelayMessage(EventLog[] eventLogs) {
+        MPTBuilder events = new MPTBuilder();
+        for (int i = 0; i < eventLogs.length; i++) {
+            events.put(MerklePatriciaTree.encodeKey(i), eventLogs[i].toBytes());
+        }
+        MPTProof[] eventProofs = new MPTProof[eventLogs.length];
+        for (int i = 0; i < eventLogs.length; i++) {
+            eventProofs[i] = new MPTProof();
+            eventProofs[i].setIndex(i);
+            eventProofs[i].setProofs(newProofs(events.getProofs(MerklePatriciaTree.encodeKey(i))));
+        }
+        return receiptRelayMessage(newReceipt(new EventLog[0], events.getRootHash()), eventProofs);
+    }
+
+    static void assertMessages(byte[][] messages, String... expected) {
+        assertEquals(expected.length, messages.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i].getBytes(), messages[i]);
+        }
+    }
+
+    @Test
+    void handleRelayMessageWithEventProofs() {
+        byte[][] messages = handleRelayMessage(eventProofsRelayMessage(newEventLogs()));
+        assertMessages(messages, "first", "second");
+        assertEquals(chain.getHeight(), BMVStatusExtra.fromBytes(getStatus().getExtra()).getLastHeight());
+    }
+
+    @Test
+    void handleRelayMessageWithReceipt() {
+        byte[][] messages = handleRelayMessage(receiptRelayMessage(newReceipt(newEventLogs(), null), null));
+        assertMessages(messages, "first", "second");
+    }
+
+    @Test
+    void handleRelayMessageWithInvalidSequence() {
+        byte[] msg = eventProofsRelayMessage(newEventLogs());
+        assertReverted("invalid sequence", () -> handleRelayMessage(BigInteger.ONE, msg));
+    }
+
+    @Test
+    void handleRelayMessageWithEventProofsWithoutEventLogsHash() {
+        MPTProof eventProof = new MPTProof();
+        eventProof.setProofs(newProofs(new byte[][]{new byte[0]}));
+        byte[] msg = receiptRelayMessage(newReceipt(newEventLogs(), null), new MPTProof[]{eventProof});
+        assertReverted("not includes eventLogsHash", () -> handleRelayMessage(msg));
+    }
+
+    @Test
+    void handleRelayMessageWithInvalidReceiptProof() {
+        RelayMessage relayMessage = RelayMessage.fromBytes(eventProofsRelayMessage(newEventLogs()));
+        ReceiptProof receiptProof = relayMessage.getReceiptProofs()[0];
+        receiptProof.setProofs(newProofs(Arrays.copyOf(receiptProof.getProofs().getProofs(), 1)));
+        byte[] msg = relayMessage.toBytes();
+        assertReverted("not enough proofs", () -> handleRelayMessage(msg));
+    }
+
+    long getPendingHeight() {
+        return BMVStatusExtra.fromBytes(getStatus().getExtra()).getPendingHeight();
+    }
+
+    @Test
+    void pendingThenVerified() {
+        BlockHeader first = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(first, null, null)));
+        BlockHeader second = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(second, null, null)));
+        assertEquals(OFFSET, getStatus().getHeight());
+        assertEquals(second.getHeight(), getPendingHeight());
+
+        BlockHeader last = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(last, chain.votes(last), null)));
+        assertEquals(last.getHeight(), getStatus().getHeight());
+        assertEquals(0, getPendingHeight());
+    }
+
+    @Test
+    void pendingReplacedByVerified() {
+        BlockHeader first = chain.next();
+        BlockHeader conflict = chain.fork(first.getHeight() + 1, SourceChain.hash(first));
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(first, null, null),
+                SourceChain.newBlockUpdate(conflict, null, null)));
+        assertEquals(conflict.getHeight(), getPendingHeight());
+
+        //following BlockHeader of the conflicting pending could not be verified
+        BlockHeader second = chain.next();
+        BlockHeader third = chain.next();
+        byte[] following = SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(third, chain.votes(third), null));
+        assertReverted("invalid prevHash", () -> handleRelayMessage(following));
+
+        //replacement without votes is not allowed
+        byte[] unverified = SourceChain.toRelayMessage(SourceChain.newBlockUpdate(second, null, null));
+        assertReverted("not exists votes", () -> handleRelayMessage(unverified));
+        assertEquals(conflict.getHeight(), getPendingHeight());
+
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(second, chain.votes(second), null)));
+        assertEquals(second.getHeight(), getStatus().getHeight());
+        assertEquals(0, getPendingHeight());
+
+        handleRelayMessage(following);
+        assertEquals(third.getHeight(), getStatus().getHeight());
+    }
+
+    @Test
+    void pendingReplacedFromFirst() {
+        BlockHeader conflict = chain.fork(OFFSET + 1, null);
+        handleRelayMessage(SourceChain.toRelayMessage(SourceChain.newBlockUpdate(conflict, null, null)));
+        assertEquals(conflict.getHeight(), getPendingHeight());
+
+        BlockHeader first = chain.next();
+        BlockHeader second = chain.next();
+        handleRelayMessage(SourceChain.toRelayMessage(
+                SourceChain.newBlockUpdate(first, null, null),
+                SourceChain.newBlockUpdate(second, chain.votes(second), null)));
+        assertEquals(second.getHeight(), getStatus().getHeight());
+        assertEquals(0, getPendingHeight());
+    }
+}
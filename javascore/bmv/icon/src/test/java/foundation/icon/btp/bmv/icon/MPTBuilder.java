@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds MPT of the source ICON chain for tests, and makes proofs of the key.
+ * Node which is serialized less than 32 bytes is embedded in the parent, others are referred by hash.
+ */
+public class MPTBuilder {
+    private Node root;
+
+    public MPTBuilder put(byte[] key, byte[] value) {
+        root = insert(root, toNibbles(key), 0, value);
+        return this;
+    }
+
+    public byte[] getRootHash() {
+        return MerklePatriciaTree.hash(root.encode());
+    }
+
+    /**
+     * Returns serialized nodes which are referred by hash on the path of the key, from the root.
+     */
+    public byte[][] getProofs(byte[] key) {
+        int[] nibbles = toNibbles(key);
+        List<byte[]> proofs = new ArrayList<>();
+        proofs.add(root.encode());
+        Node node = root;
+        int pos = 0;
+        while (node != null) {
+            Node child = null;
+            if (node instanceof Branch) {
+                if (pos < nibbles.length) {
+                    child = ((Branch) node).children[nibbles[pos++]];
+                }
+            } else if (node instanceof Extension) {
+                Extension extension = (Extension) node;
+                pos += extension.path.length;
+                child = extension.child;
+            }
+            if (child != null && child.encode().length >= 32) {
+                proofs.add(child.encode());
+            }
+            node = child;
+        }
+        return proofs.toArray(new byte[0][]);
+    }
+
+    /**
+     * Makes the node table with distinct nodes of proofs,
+     * then replaces each element of proofs with the index of the node table.
+     */
+    public static byte[][] toNodeTable(byte[][]... proofsList) {
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        List<byte[]> nodes = new ArrayList<>();
+        for (byte[][] proofs : proofsList) {
+            for (int i = 0; i < proofs.length; i++) {
+                String hex = new BigInteger(1, MerklePatriciaTree.hash(proofs[i])).toString(16);
+                Integer idx = indexes.get(hex);
+                if (idx == null) {
+                    idx = nodes.size();
+                    indexes.put(hex, idx);
+                    nodes.add(proofs[i]);
+                }
+                proofs[i] = BigInteger.valueOf(idx).toByteArray();
+            }
+        }
+        return nodes.toArray(new byte[0][]);
+    }
+
+    static int[] toNibbles(byte[] key) {
+        int[] nibbles = new int[key.length * 2];
+        for (int i = 0; i < key.length; i++) {
+            nibbles[i * 2] = (key[i] >> 4) & 0x0f;
+            nibbles[i * 2 + 1] = key[i] & 0x0f;
+        }
+        return nibbles;
+    }
+
+    static int commonPrefix(int[] path, int[] nibbles, int pos) {
+        int i = 0;
+        while (i < path.length && pos + i < nibbles.length && path[i] == nibbles[pos + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    static Node insert(Node node, int[] nibbles, int pos, byte[] value) {
+        int[] rest = Arrays.copyOfRange(nibbles, pos, nibbles.length);
+        if (node == null) {
+            return new Leaf(rest, value);
+        } else if (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            if (rest.length == 0) {
+                branch.value = value;
+            } else {
+                branch.children[rest[0]] = insert(branch.children[rest[0]], nibbles, pos + 1, value);
+            }
+            return branch;
+        }
+        int[] path = node instanceof Leaf ? ((Leaf) node).path : ((Extension) node).path;
+        int common = commonPrefix(path, nibbles, pos);
+        if (node instanceof Leaf && common == path.length && common == rest.length) {
+            ((Leaf) node).value = value;
+            return node;
+        } else if (node instanceof Extension && common == path.length) {
+            Extension extension = (Extension) node;
+            extension.child = insert(extension.child, nibbles, pos + common, value);
+            return extension;
+        }
+        Branch branch = new Branch();
+        int[] remained = Arrays.copyOfRange(path, common, path.length);
+        if (node instanceof Leaf) {
+            insert(branch, remained, 0, ((Leaf) node).value);
+        } else if (remained.length == 1) {
+            branch.children[remained[0]] = ((Extension) node).child;
+        } else {
+            branch.children[remained[0]] = new Extension(
+                    Arrays.copyOfRange(remained, 1, remained.length), ((Extension) node).child);
+        }
+        insert(branch, nibbles, pos + common, value);
+        return common > 0 ? new Extension(Arrays.copyOf(path, common), branch) : branch;
+    }
+
+    static abstract class Node {
+        abstract byte[] encode();
+
+        byte[] reference() {
+            byte[] encoded = encode();
+            return encoded.length < 32 ? encoded : encodeBytes(MerklePatriciaTree.hash(encoded));
+        }
+    }
+
+    static class Leaf extends Node {
+        int[] path;
+        byte[] value;
+
+        Leaf(int[] path, byte[] value) {
+            this.path = path;
+            this.value = value;
+        }
+
+        @Override
+        byte[] encode() {
+            return encodeList(encodeBytes(encodePath(path, true)), encodeBytes(value));
+        }
+    }
+
+    static class Extension extends Node {
+        int[] path;
+        Node child;
+
+        Extension(int[] path, Node child) {
+            this.path = path;
+            this.child = child;
+        }
+
+        @Override
+        byte[] encode() {
+            return encodeList(encodeBytes(encodePath(path, false)), child.reference());
+        }
+    }
+
+    static class Branch extends Node {
+        Node[] children = new Node[16];
+        byte[] value;
+
+        @Override
+        byte[] encode() {
+            byte[][] items = new byte[17][];
+            for (int i = 0; i < children.length; i++) {
+                items[i] = children[i] == null ? encodeBytes(new byte[0]) : children[i].reference();
+            }
+            items[16] = encodeBytes(value == null ? new byte[0] : value);
+            return encodeList(items);
+        }
+    }
+
+    static byte[] encodePath(int[] path, boolean leaf) {
+        boolean odd = path.length % 2 == 1;
+        int flag = (leaf ? 0x20 : 0) | (odd ? 0x10 : 0);
+        byte[] encoded = new byte[path.length / 2 + 1];
+        encoded[0] = (byte) (flag | (odd ? path[0] : 0));
+        for (int i = odd ? 1 : 0, j = 1; i < path.length; i += 2, j++) {
+            encoded[j] = (byte) ((path[i] << 4) | path[i + 1]);
+        }
+        return encoded;
+    }
+
+    static byte[] encodeBytes(byte[] bytes) {
+        if (bytes.length == 1 && (bytes[0] & 0xff) < 0x80) {
+            return bytes;
+        }
+        return concat(encodeLength(0x80, bytes.length), bytes);
+    }
+
+    static byte[] encodeList(byte[]... items) {
+        byte[] content = concat(items);
+        return concat(encodeLength(0xc0, content.length), content);
+    }
+
+    static byte[] encodeLength(int offset, int length) {
+        if (length <= 55) {
+            return new byte[]{(byte) (offset + length)};
+        }
+        byte[] lengthBytes = BigInteger.valueOf(length).toByteArray();
+        if (lengthBytes[0] == 0) {
+            lengthBytes = Arrays.copyOfRange(lengthBytes, 1, lengthBytes.length);
+        }
+        return concat(new byte[]{(byte) (offset + 55 + lengthBytes.length)}, lengthBytes);
+    }
+
+    static byte[] concat(byte[]... arrays) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            os.write(array, 0, array.length);
+        }
+        return os.toByteArray();
+    }
+}
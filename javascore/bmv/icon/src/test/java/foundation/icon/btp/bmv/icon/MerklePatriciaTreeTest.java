@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MerklePatriciaTreeTest {
+
+    static byte[] key(long index) {
+        return MerklePatriciaTree.encodeKey(index);
+    }
+
+    static byte[] value(int index, int length) {
+        byte[] value = new byte[length];
+        Arrays.fill(value, (byte) (index + 1));
+        return value;
+    }
+
+    static MPTBuilder newMPT(int numOfLeaves, int valueLength) {
+        MPTBuilder mpt = new MPTBuilder();
+        for (int i = 0; i < numOfLeaves; i++) {
+            mpt.put(key(i), value(i, valueLength));
+        }
+        return mpt;
+    }
+
+    static void assertMPTException(String message, Runnable runnable) {
+        MerklePatriciaTree.MPTException e = assertThrows(MerklePatriciaTree.MPTException.class, runnable::run);
+        assertTrue(e.getMessage().startsWith(message), e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 16, 17, 100, 300})
+    void prove(int numOfLeaves) {
+        for (int valueLength : new int[]{1, 40}) {
+            MPTBuilder mpt = newMPT(numOfLeaves, valueLength);
+            byte[] rootHash = mpt.getRootHash();
+            for (int i = 0; i < numOfLeaves; i++) {
+                assertArrayEquals(value(i, valueLength),
+                        MerklePatriciaTree.prove(rootHash, key(i), mpt.getProofs(key(i))));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 17, 100})
+    void proveWithNodeTable(int numOfLeaves) {
+        MPTBuilder mpt = newMPT(numOfLeaves, 40);
+        byte[] rootHash = mpt.getRootHash();
+        byte[][][] proofsList = new byte[numOfLeaves][][];
+        int numOfProofs = 0;
+        for (int i = 0; i < numOfLeaves; i++) {
+            proofsList[i] = mpt.getProofs(key(i));
+            numOfProofs += proofsList[i].length;
+        }
+        byte[][] nodes = MPTBuilder.toNodeTable(proofsList);
+        //root and branches are shared
+        assertTrue(nodes.length < numOfProofs);
+
+        Map<String, byte[]> cache = new HashMap<>();
+        for (int i = 0; i < numOfLeaves; i++) {
+            assertArrayEquals(value(i, 40),
+                    MerklePatriciaTree.prove(rootHash, key(i), proofsList[i], nodes, cache));
+        }
+        //each distinct node is verified once
+        assertEquals(nodes.length, cache.size());
+    }
+
+    @Test
+    void proveEmbeddedNodes() {
+        MPTBuilder mpt = newMPT(16, 1);
+        byte[] rootHash = mpt.getRootHash();
+        for (int i = 0; i < 16; i++) {
+            byte[][] proofs = mpt.getProofs(key(i));
+            //leaves which are serialized less than 32 bytes are embedded in the branch
+            assertEquals(2, proofs.length);
+            assertArrayEquals(value(i, 1), MerklePatriciaTree.prove(rootHash, key(i), proofs));
+        }
+    }
+
+    @Test
+    void proveWithInvalidNodeIndex() {
+        MPTBuilder mpt = newMPT(2, 40);
+        byte[] rootHash = mpt.getRootHash();
+        byte[][] proofs = mpt.getProofs(key(0));
+        byte[][] nodes = MPTBuilder.toNodeTable(proofs);
+
+        byte[][] outOfRange = proofs.clone();
+        outOfRange[0] = new byte[]{(byte) nodes.length};
+        assertMPTException("out of range node index",
+                () -> MerklePatriciaTree.prove(rootHash, key(0), outOfRange, nodes, null));
+
+        byte[][] tooLong = proofs.clone();
+        tooLong[0] = new byte[5];
+        assertMPTException("invalid node index",
+                () -> MerklePatriciaTree.prove(rootHash, key(0), tooLong, nodes, null));
+    }
+
+    @Test
+    void relayMessageWithProofNodes() {
+        MPTBuilder mpt = newMPT(3, 40);
+        byte[][] proofs = mpt.getProofs(key(1));
+        byte[][] nodes = MPTBuilder.toNodeTable(proofs);
+        Proofs receiptProofs = new Proofs();
+        receiptProofs.setProofs(proofs);
+        ReceiptProof receiptProof = new ReceiptProof();
+        receiptProof.setIndex(1);
+        receiptProof.setProofs(receiptProofs);
+
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setReceiptProofs(new ReceiptProof[]{receiptProof});
+        relayMessage.setProofNodes(nodes);
+        RelayMessage decoded = RelayMessage.fromBytes(relayMessage.toBytes());
+        assertEquals(nodes.length, decoded.getProofNodes().length);
+        for (int i = 0; i < nodes.length; i++) {
+            assertArrayEquals(nodes[i], decoded.getProofNodes()[i]);
+        }
+        ReceiptProof decodedReceiptProof = decoded.getReceiptProofs()[0];
+        assertArrayEquals(value(1, 40), MerklePatriciaTree.prove(mpt.getRootHash(), key(1),
+                decodedReceiptProof.getProofs().getProofs(), decoded.getProofNodes(), null));
+
+        //RelayMessage without proofNodes
+        relayMessage.setProofNodes(null);
+        assertNull(RelayMessage.fromBytes(relayMessage.toBytes()).getProofNodes());
+    }
+
+    @Test
+    void proveWithMissingNode() {
+        MPTBuilder mpt = newMPT(17, 40);
+        byte[][] proofs = mpt.getProofs(key(16));
+        byte[][] missing = Arrays.copyOf(proofs, proofs.length - 1);
+        assertMPTException("not enough proofs",
+                () -> MerklePatriciaTree.prove(mpt.getRootHash(), key(16), missing));
+    }
+
+    @Test
+    void proveWithTamperedNode() {
+        MPTBuilder mpt = newMPT(17, 40);
+        byte[][] proofs = mpt.getProofs(key(16));
+        for (int i = 0; i < proofs.length; i++) {
+            byte[][] tampered = proofs.clone();
+            tampered[i] = proofs[i].clone();
+            tampered[i][tampered[i].length - 1] ^= 0x01;
+            assertMPTException("mismatch hash",
+                    () -> MerklePatriciaTree.prove(mpt.getRootHash(), key(16), tampered));
+        }
+    }
+
+    @Test
+    void proveNotExistsKey() {
+        MPTBuilder mpt = newMPT(2, 40);
+        assertMPTException("not found",
+                () -> MerklePatriciaTree.prove(mpt.getRootHash(), key(2), mpt.getProofs(key(2))));
+
+        MPTBuilder single = newMPT(1, 40);
+        assertMPTException("mismatch nibbles on leaf",
+                () -> MerklePatriciaTree.prove(single.getRootHash(), key(1), single.getProofs(key(0))));
+    }
+
+    @Test
+    void proveWithCachedNodes() {
+        MPTBuilder mpt = newMPT(3, 40);
+        byte[] rootHash = mpt.getRootHash();
+        Map<String, byte[]> cache = new HashMap<>();
+        byte[][] proofs = mpt.getProofs(key(0));
+        MerklePatriciaTree.prove(rootHash, key(0), proofs, null, cache);
+        assertEquals(proofs.length, cache.size());
+
+        //verified nodes are not read again
+        byte[][] next = mpt.getProofs(key(1));
+        next[0] = new byte[0];
+        assertArrayEquals(value(1, 40), MerklePatriciaTree.prove(rootHash, key(1), next, null, cache));
+        assertMPTException("mismatch hash",
+                () -> MerklePatriciaTree.prove(rootHash, key(1), next, null, new HashMap<>()));
+    }
+}
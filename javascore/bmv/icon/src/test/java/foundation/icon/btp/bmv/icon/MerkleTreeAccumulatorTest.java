@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MerkleTreeAccumulatorTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final int CACHE_SIZE = 4;
+    static final int NUM_OF_BLOCKS = 10;
+
+    /**
+     * SCORE which keeps MerkleTreeAccumulator with the cache in MTACache,
+     * verify returns the message of MTAException or null.
+     */
+    public static class MTAScore {
+        private final MerkleTreeAccumulator mta = new MerkleTreeAccumulator();
+
+        public MTAScore(int cacheSize) {
+            mta.setCacheSize(cacheSize);
+            mta.setCacheDB(new MTACache("mta|cache"));
+        }
+
+        @External
+        public void add(byte[] hash) {
+            mta.add(hash);
+        }
+
+        @External
+        public void setCacheSize(int cacheSize) {
+            mta.setCacheSize(cacheSize);
+            mta.ensureCache();
+        }
+
+        @External(readonly = true)
+        public String verify(byte[] hash, long height) {
+            try {
+                mta.verify(new byte[0][], hash, height, 1);
+                return null;
+            } catch (MTAException e) {
+                return e.getMessage();
+            }
+        }
+    }
+
+    Score score;
+
+    static byte[] hash(long height) {
+        return BTPMessageVerifier.hash(BigInteger.valueOf(height).toByteArray());
+    }
+
+    String verify(long height) {
+        return (String) score.call("verify", hash(height), height);
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        score = sm.deploy(owner, MTAScore.class, CACHE_SIZE);
+        for (int i = 1; i <= NUM_OF_BLOCKS; i++) {
+            score.invoke(owner, "add", (Object) hash(i));
+        }
+    }
+
+    @Test
+    void verifyOldWitnessByCache() {
+        for (int i = NUM_OF_BLOCKS - CACHE_SIZE + 1; i <= NUM_OF_BLOCKS; i++) {
+            assertNull(verify(i));
+        }
+        assertEquals("invalid old witness",
+                score.call("verify", hash(NUM_OF_BLOCKS + 1), (long) NUM_OF_BLOCKS));
+        //index of the overwritten entry is removed
+        assertEquals("invalid old witness", verify(NUM_OF_BLOCKS - CACHE_SIZE));
+        assertEquals("not allowed old witness", verify(NUM_OF_BLOCKS - CACHE_SIZE - 1));
+    }
+
+    @Test
+    void verifyOldWitnessAfterResize() {
+        score.invoke(owner, "setCacheSize", 2);
+        assertNull(verify(NUM_OF_BLOCKS));
+        assertNull(verify(NUM_OF_BLOCKS - 1));
+        assertEquals("invalid old witness", verify(NUM_OF_BLOCKS - 2));
+
+        score.invoke(owner, "add", (Object) hash(NUM_OF_BLOCKS + 1));
+        assertNull(verify(NUM_OF_BLOCKS + 1));
+        assertEquals("invalid old witness", verify(NUM_OF_BLOCKS - 1));
+    }
+}
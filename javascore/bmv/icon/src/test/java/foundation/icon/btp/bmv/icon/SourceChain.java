@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import foundation.icon.icx.KeyWallet;
+import score.Address;
+
+import java.util.Arrays;
+
+/**
+ * Source ICON chain for tests, which makes linked BlockHeaders and Votes signed by validators.
+ */
+public class SourceChain {
+    static final PartSetId PART_SET_ID = newPartSetId();
+
+    private KeyWallet[] wallets;
+    private Validators validators;
+    private byte[] validatorsHash;
+    private long height;
+    private byte[] lastHash;
+
+    public SourceChain(int numOfValidators, long offset) {
+        setValidators(newWallets(numOfValidators));
+        this.height = offset;
+    }
+
+    static PartSetId newPartSetId() {
+        PartSetId partSetId = new PartSetId();
+        partSetId.setCount(1);
+        partSetId.setHash(BTPMessageVerifier.hash("partSet".getBytes()));
+        return partSetId;
+    }
+
+    static KeyWallet[] newWallets(int n) {
+        KeyWallet[] wallets = new KeyWallet[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                wallets[i] = KeyWallet.create();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return wallets;
+    }
+
+    static Address addressOf(KeyWallet wallet) {
+        return Address.fromString(wallet.getAddress().toString());
+    }
+
+    static Validators newValidators(KeyWallet[] wallets) {
+        Address[] addresses = new Address[wallets.length];
+        for (int i = 0; i < wallets.length; i++) {
+            addresses[i] = addressOf(wallets[i]);
+        }
+        Validators validators = new Validators();
+        validators.setAddresses(addresses);
+        return validators;
+    }
+
+    static byte[] hash(BlockHeader blockHeader) {
+        return BTPMessageVerifier.hash(blockHeader.toBytes());
+    }
+
+    static BlockHeader newBlockHeader(long height, long timestamp, byte[] prevHash,
+                                      byte[] nextValidatorHash, byte[] receiptHash) {
+        BlockHeader blockHeader = new BlockHeader();
+        blockHeader.setVersion(2);
+        blockHeader.setHeight(height);
+        blockHeader.setTimestamp(timestamp);
+        blockHeader.setPrevHash(prevHash);
+        blockHeader.setNextValidatorHash(nextValidatorHash);
+        if (receiptHash != null) {
+            Result result = new Result();
+            result.setReceiptHash(receiptHash);
+            ExtensionData extensionData = new ExtensionData();
+            extensionData.setData(new byte[0][]);
+            result.setExtensionData(extensionData);
+            blockHeader.setResult(result);
+        }
+        return blockHeader;
+    }
+
+    static Votes newVotes(BlockHeader blockHeader, KeyWallet... signers) {
+        VoteMessage voteMessage = new VoteMessage();
+        voteMessage.setHeight(blockHeader.getHeight());
+        voteMessage.setRound(0);
+        voteMessage.setVoteType(VoteMessage.VOTE_TYPE_PRECOMMIT);
+        voteMessage.setBlockId(hash(blockHeader));
+        voteMessage.setPartSetId(PART_SET_ID);
+        Vote[] items = new Vote[signers.length];
+        for (int i = 0; i < signers.length; i++) {
+            long timestamp = blockHeader.getTimestamp() + i + 1;
+            voteMessage.setTimestamp(timestamp);
+            Vote vote = new Vote();
+            vote.setTimestamp(timestamp);
+            vote.setSignature(signers[i].sign(BTPMessageVerifier.hash(voteMessage.toBytes())));
+            items[i] = vote;
+        }
+        Votes votes = new Votes();
+        votes.setRound(0);
+        votes.setPartSetId(PART_SET_ID);
+        votes.setItems(items);
+        return votes;
+    }
+
+    static BlockUpdate newBlockUpdate(BlockHeader blockHeader, Votes votes, Validators nextValidators) {
+        BlockUpdate blockUpdate = new BlockUpdate();
+        blockUpdate.setBlockHeader(blockHeader);
+        blockUpdate.setVotes(votes);
+        blockUpdate.setNextValidators(nextValidators);
+        return blockUpdate;
+    }
+
+    static byte[] toRelayMessage(BlockUpdate... blockUpdates) {
+        RelayMessage relayMessage = new RelayMessage();
+        relayMessage.setBlockUpdates(blockUpdates);
+        return relayMessage.toBytes();
+    }
+
+    public KeyWallet[] getWallets() {
+        return wallets;
+    }
+
+    public Validators getValidators() {
+        return validators;
+    }
+
+    public byte[] getValidatorsHash() {
+        return validatorsHash;
+    }
+
+    /**
+     * Changes validators, the next BlockHeader has the hash of the validators as nextValidatorHash,
+     * and it's voted by the previous validators.
+     */
+    public void setValidators(KeyWallet[] wallets) {
+        this.wallets = wallets;
+        this.validators = newValidators(wallets);
+        this.validatorsHash = BTPMessageVerifier.hash(validators.toBytes());
+    }
+
+    /**
+     * Returns comma separated addresses of validators, which is the parameter of the constructor of BMV.
+     */
+    public String validatorsString() {
+        StringBuilder sb = new StringBuilder();
+        for (Address address : validators.getAddresses()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(address.toString());
+        }
+        return sb.toString();
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public byte[] getLastHash() {
+        return lastHash;
+    }
+
+    /**
+     * Makes the next BlockHeader which is linked to the last BlockHeader.
+     */
+    public BlockHeader next(byte[] receiptHash) {
+        height++;
+        BlockHeader blockHeader = newBlockHeader(height, height * 1000, lastHash, validatorsHash, receiptHash);
+        lastHash = hash(blockHeader);
+        return blockHeader;
+    }
+
+    public BlockHeader next() {
+        return next(null);
+    }
+
+    /**
+     * Makes the BlockHeader which is different from the BlockHeader of the chain at the same height.
+     */
+    public BlockHeader fork(long height, byte[] prevHash) {
+        return newBlockHeader(height, height * 1000 + 1, prevHash, validatorsHash, null);
+    }
+
+    /**
+     * Returns Votes of the BlockHeader which is signed by the first n validators.
+     */
+    public Votes votes(BlockHeader blockHeader, int n) {
+        return newVotes(blockHeader, Arrays.copyOf(wallets, n));
+    }
+
+    /**
+     * Returns Votes of the BlockHeader which is signed by the quorum of validators.
+     */
+    public Votes votes(BlockHeader blockHeader) {
+        return votes(blockHeader, wallets.length * 2 / 3 + 1);
+    }
+}
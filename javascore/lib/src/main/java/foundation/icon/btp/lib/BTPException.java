@@ -187,6 +187,13 @@ public class BTPException extends UserRevertException {
             this(code.code(), message);
         }
 
+        /**
+         * @param code the code of BTPException which is returned by {@link #getCode()}, not the code of type
+         */
+        public static BSH ofCode(int code, String message) {
+            return new BSH(code < Type.BSH.offset ? 0 : Type.BSH.recover(code), message);
+        }
+
     }
 
 }
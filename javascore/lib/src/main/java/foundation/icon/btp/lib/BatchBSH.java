@@ -0,0 +1,47 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import foundation.icon.score.client.ScoreClient;
+import foundation.icon.score.client.ScoreInterface;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * Optional interface of BSH which handles BTP Messages in a batch.
+ * BMC checks whether the BSH supports it by calling {@link #handleBTPMessages(String[], String, BigInteger[], byte[][])}
+ * with empty arrays, and calls {@link #handleBTPMessage(String, String, BigInteger, byte[])} for each message if not.
+ */
+@ScoreInterface
+@ScoreClient
+public interface BatchBSH extends BSH {
+    /**
+     * Handles BTP Messages for the service in a batch.
+     * Accepts messages only from BMC.
+     * A message which is failed must not change any state, then BMC will generate a BTP Message that includes error information.
+     * If it fails, then BMC calls {@link #handleBTPMessage(String, String, BigInteger, byte[])} for each message.
+     *
+     * @param _from String[] ( Network Address of source network of each message )
+     * @param _svc String ( name of the service )
+     * @param _sn Integer[] ( serial number of each message )
+     * @param _msg Bytes[] ( serialized bytes of ServiceMessage of each message )
+     * @return Integer[] ( result code of each message, zero for success, otherwise code of BTPException.BSH )
+     */
+    @External
+    BigInteger[] handleBTPMessages(String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg);
+}
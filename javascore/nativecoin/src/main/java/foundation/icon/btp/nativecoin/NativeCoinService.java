@@ -31,7 +31,7 @@ import scorex.util.ArrayList;
 import java.math.BigInteger;
 import java.util.List;
 
-public class NativeCoinService implements NCS, IRC31Receiver, BSH, OwnerManager {
+public class NativeCoinService implements NCS, IRC31Receiver, BatchBSH, OwnerManager {
     private static final Logger logger = Logger.getLogger(NativeCoinService.class);
 
     public static final String SERVICE = "nativecoin";
@@ -321,12 +321,46 @@ public class NativeCoinService implements NCS, IRC31Receiver, BSH, OwnerManager
     @External
     public void handleBTPMessage(String _from, String _svc, BigInteger _sn, byte[] _msg) {
         require(Context.getCaller().equals(bmc), "Only BMC");
+        handleMessage(_from, _sn, NCSMessage.fromBytes(_msg));
+    }
+
+    @External
+    public BigInteger[] handleBTPMessages(String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        require(Context.getCaller().equals(bmc), "Only BMC");
+        int len = _msg.length;
+        NCSMessage[] messages = new NCSMessage[len];
+        CheckedRequest[] requests = new CheckedRequest[len];
+        BigInteger[] results = new BigInteger[len];
+        for (int i = 0; i < len; i++) {
+            messages[i] = NCSMessage.fromBytes(_msg[i]);
+            results[i] = BigInteger.ZERO;
+            if (messages[i].getServiceType() == NCSMessage.REQUEST_COIN_TRANSFER) {
+                // reject invalid request without any state change
+                try {
+                    requests[i] = checkRequest(TransferRequest.fromBytes(messages[i].getData()));
+                } catch (NCSException e) {
+                    results[i] = BigInteger.valueOf(e.getCode());
+                }
+            }
+        }
+        // failure on handling reverts all, then BMC delivers each message by handleBTPMessage
+        for (int i = 0; i < len; i++) {
+            if (results[i].signum() == 0) {
+                if (requests[i] != null) {
+                    handleRequest(requests[i], _from[i], _sn[i]);
+                } else {
+                    handleMessage(_from[i], _sn[i], messages[i]);
+                }
+            }
+        }
+        return results;
+    }
 
-        NCSMessage message = NCSMessage.fromBytes(_msg);
+    private void handleMessage(String _from, BigInteger _sn, NCSMessage message) {
         int serviceType = message.getServiceType();
         if (serviceType == NCSMessage.REQUEST_COIN_TRANSFER) {
             TransferRequest request = TransferRequest.fromBytes(message.getData());
-            handleRequest(request, _from, _sn);
+            handleRequest(checkRequest(request), _from, _sn);
         } else if (serviceType == NCSMessage.REPONSE_HANDLE_SERVICE) {
             TransferResponse response = TransferResponse.fromBytes(message.getData());
             handleResponse(_sn, response);
@@ -446,21 +480,36 @@ public class NativeCoinService implements NCS, IRC31Receiver, BSH, OwnerManager
         return fee;
     }
 
-    private void handleRequest(TransferRequest request, String from, BigInteger sn) {
-        logger.println("handleRequest","begin","sn:",sn);
-        Address to;
+    private Address toAddress(String to) {
         try {
-            to = Address.fromString(request.getTo());
+            return Address.fromString(to);
         } catch (IllegalArgumentException | NullPointerException e) {
             throw NCSException.unknown(e.getMessage());
         }
+    }
 
-        BigInteger nativeCoinTransferAmount = null;
-        Asset[] assets = request.getAssets();
-        List<String> coinNames = new ArrayList<>();
-        List<BigInteger> amounts = new ArrayList<>();
+    /**
+     * TransferRequest which is validated by {@link #checkRequest(TransferRequest)}.
+     */
+    private static class CheckedRequest {
+        private final Address to;
+        private final List<String> coinNames = new ArrayList<>();
+        private final List<BigInteger> amounts = new ArrayList<>();
+        //amount of native coin to transfer, or null
+        private BigInteger nativeCoinTransferAmount;
+
+        CheckedRequest(Address to) {
+            this.to = to;
+        }
+    }
+
+    /**
+     * Validates the request without state change, and collects registered coins to mint.
+     */
+    private CheckedRequest checkRequest(TransferRequest request) {
+        CheckedRequest checked = new CheckedRequest(toAddress(request.getTo()));
         List<String> registeredCoinNames = getCoinNamesAsList();
-        for (Asset asset : assets) {
+        for (Asset asset : request.getAssets()) {
             String coinName = asset.getCoinName();
             BigInteger amount = asset.getAmount();
             if (amount == null || amount.compareTo(BigInteger.ZERO) < 1) {
@@ -468,15 +517,21 @@ public class NativeCoinService implements NCS, IRC31Receiver, BSH, OwnerManager
             }
 
             if (registeredCoinNames.contains(coinName)) {
-                coinNames.add(coinName);
-                amounts.add(amount);
+                checked.coinNames.add(coinName);
+                checked.amounts.add(amount);
             } else if (name.equals(coinName)) {
-                nativeCoinTransferAmount = amount;
+                checked.nativeCoinTransferAmount = amount;
             } else {
                 throw NCSException.unknown("Invalid Token");
             }
         }
+        return checked;
+    }
 
+    private void handleRequest(CheckedRequest request, String from, BigInteger sn) {
+        logger.println("handleRequest","begin","sn:",sn);
+        Address to = request.to;
+        BigInteger nativeCoinTransferAmount = request.nativeCoinTransferAmount;
         if (nativeCoinTransferAmount != null) {
             try {
                 Context.transfer(to, nativeCoinTransferAmount);
@@ -485,8 +540,8 @@ public class NativeCoinService implements NCS, IRC31Receiver, BSH, OwnerManager
             }
         }
 
-        if (coinNames.size() > 0) {
-            mintBatch(to, coinNamesToIds(coinNames), ArrayUtil.toBigIntegerArray(amounts));
+        if (request.coinNames.size() > 0) {
+            mintBatch(to, coinNamesToIds(request.coinNames), ArrayUtil.toBigIntegerArray(request.amounts));
         }
 
         logger.println("handleRequest","responseSuccess");
@@ -20,6 +20,7 @@ import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.nativecoin.irc31.IRC31IntegrationTest;
 import foundation.icon.btp.nativecoin.irc31.IRC31SupplierTest;
 import foundation.icon.btp.test.BTPIntegrationTest;
+import foundation.icon.btp.mock.MockBMCScoreClient;
 import foundation.icon.btp.test.MockBMCIntegrationTest;
 import foundation.icon.jsonrpc.Address;
 import foundation.icon.jsonrpc.model.TransactionResult;
@@ -474,6 +475,50 @@ class NativeCoinServiceTest implements NCSIntegrationTest {
                 ncsAddress, linkNet, NativeCoinService.SERVICE, sn, ncsMessage.toBytes());
     }
 
+    static byte[] transferRequestMessage(Asset... assets) {
+        TransferRequest request = new TransferRequest();
+        request.setFrom(linkFa.toString());
+        request.setTo(testerAddress.toString());
+        request.setAssets(assets);
+        NCSMessage ncsMessage = new NCSMessage();
+        ncsMessage.setServiceType(NCSMessage.REQUEST_COIN_TRANSFER);
+        ncsMessage.setData(request.toBytes());
+        return ncsMessage.toBytes();
+    }
+
+    @Test
+    void handleBTPMessagesShouldReturnResults() {
+        //lock native coin to transfer
+        ncs.transferNativeCoin(nativeValue.multiply(BigInteger.TWO), to.toString());
+
+        Asset asset = new Asset(nativeCoinName, nativeValue);
+        byte[][] msgs = new byte[][]{
+                transferRequestMessage(asset),
+                transferRequestMessage(new Asset("invalid", nativeValue)),
+                transferRequestMessage(asset)
+        };
+        BigInteger[] sns = new BigInteger[]{BigInteger.ONE, BigInteger.TWO, BigInteger.valueOf(3)};
+        Consumer<TransactionResult> checker = MockBMCIntegrationTest.handleBTPMessagesResultEvents((l) -> {
+            assertEquals(msgs.length, l.size());
+            assertEquals(BigInteger.ZERO, l.get(0).get_code());
+            assertTrue(l.get(1).get_code().signum() > 0);
+            assertEquals(BigInteger.ZERO, l.get(2).get_code());
+        }).andThen(ScoreIntegrationTest.eventLogsChecker(
+                MockBMCIntegrationTest.mockBMC._address(),
+                MockBMCScoreClient.SendMessage::eventLogs,
+                (l) -> {
+                    //only the handled requests are responded by NativeCoinService
+                    assertEquals(2, l.size());
+                    assertEquals(sns[0], l.get(0).get_sn());
+                    assertEquals(sns[2], l.get(1).get_sn());
+                }));
+        ScoreIntegrationTest.balanceCheck(testerAddress, nativeValue.multiply(BigInteger.TWO), () ->
+                MockBMCIntegrationTest.mockBMC.handleBTPMessages(
+                        checker,
+                        ncsAddress, new String[]{linkNet, linkNet, linkNet}, NativeCoinService.SERVICE,
+                        sns, msgs));
+    }
+
     @Test
     void handleBTPMessageShouldRevert() {
         AssertNCSException.assertUnknown(() ->
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.score.util;
+
+/**
+ * Locates RLP items in the encoded bytes without decoding,
+ * to access the part of encoded bytes without copy.
+ * RLPn null (0xf800) is handled as a list which has no content.
+ */
+public class RLPUtil {
+    public static final byte[] NULL = new byte[]{(byte) 0xf8, 0x00};
+
+    public static boolean isList(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) >= 0xc0;
+    }
+
+    public static boolean isNull(byte[] bytes, int offset) {
+        return bytes[offset] == NULL[0] && bytes[offset + 1] == NULL[1];
+    }
+
+    public static int headerLength(byte[] bytes, int offset) {
+        int p = bytes[offset] & 0xff;
+        if (p < 0x80) {
+            return 0;
+        } else if (p <= 0xb7) {
+            return 1;
+        } else if (p < 0xc0) {
+            return 1 + p - 0xb7;
+        } else if (p <= 0xf7) {
+            return 1;
+        } else {
+            return 1 + p - 0xf7;
+        }
+    }
+
+    public static int contentLength(byte[] bytes, int offset) {
+        int p = bytes[offset] & 0xff;
+        if (p < 0x80) {
+            return 1;
+        } else if (p <= 0xb7) {
+            return p - 0x80;
+        } else if (p < 0xc0) {
+            return readLength(bytes, offset + 1, p - 0xb7);
+        } else if (p <= 0xf7) {
+            return p - 0xc0;
+        } else {
+            return readLength(bytes, offset + 1, p - 0xf7);
+        }
+    }
+
+    private static int readLength(byte[] bytes, int offset, int size) {
+        if (size > 4 || offset + size > bytes.length) {
+            throw new IllegalArgumentException("invalid length");
+        }
+        int l = 0;
+        for (int i = 0; i < size; i++) {
+            l = (l << 8) | (bytes[offset + i] & 0xff);
+        }
+        if (l < 0) {
+            throw new IllegalArgumentException("invalid length");
+        }
+        return l;
+    }
+
+    /**
+     * Returns the offset of the content, it's same with offset if the item is single byte.
+     */
+    public static int contentOffset(byte[] bytes, int offset) {
+        return offset + headerLength(bytes, offset);
+    }
+
+    public static int itemLength(byte[] bytes, int offset) {
+        int l = headerLength(bytes, offset) + contentLength(bytes, offset);
+        if (offset + l > bytes.length) {
+            throw new IllegalArgumentException("out of range");
+        }
+        return l;
+    }
+
+    /**
+     * Returns whether the content of the bytes item at offset equals to value.
+     */
+    public static boolean contentEquals(byte[] bytes, int offset, byte[] value) {
+        if (isList(bytes, offset) || contentLength(bytes, offset) != value.length) {
+            return false;
+        }
+        int from = contentOffset(bytes, offset);
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[from + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns offsets of the items in the list at offset.
+     */
+    public static int[] listItemOffsets(byte[] bytes, int offset) {
+        if (!isList(bytes, offset)) {
+            throw new IllegalArgumentException("not list");
+        }
+        int pos = contentOffset(bytes, offset);
+        int end = offset + itemLength(bytes, offset);
+        int cnt = 0;
+        for (int p = pos; p < end; p += itemLength(bytes, p)) {
+            cnt++;
+        }
+        int[] offsets = new int[cnt];
+        for (int i = 0; i < cnt; i++) {
+            offsets[i] = pos;
+            pos += itemLength(bytes, pos);
+        }
+        if (pos != end) {
+            throw new IllegalArgumentException("invalid list");
+        }
+        return offsets;
+    }
+
+    public static int listHeaderLength(int contentLength) {
+        if (contentLength <= 55) {
+            return 1;
+        }
+        int n = 0;
+        for (int l = contentLength; l > 0; l >>>= 8) {
+            n++;
+        }
+        return 1 + n;
+    }
+
+    /**
+     * Writes the header of list which has contentLength to dst at offset.
+     *
+     * @return the length of header
+     */
+    public static int writeListHeader(byte[] dst, int offset, int contentLength) {
+        int hl = listHeaderLength(contentLength);
+        if (hl == 1) {
+            dst[offset] = (byte) (0xc0 + contentLength);
+        } else {
+            int n = hl - 1;
+            dst[offset] = (byte) (0xf7 + n);
+            for (int i = n; i > 0; i--) {
+                dst[offset + i] = (byte) contentLength;
+                contentLength >>>= 8;
+            }
+        }
+        return hl;
+    }
+}
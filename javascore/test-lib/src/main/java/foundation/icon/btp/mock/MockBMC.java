@@ -74,6 +74,15 @@ public interface MockBMC {
     @External
     void handleBTPMessage(Address _addr, String _from, String _svc, BigInteger _sn, byte[] _msg);
 
+    @External
+    void handleBTPMessages(Address _addr, String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg);
+
+    /**
+     * Emitted for each result of BatchBSH.handleBTPMessages, in order of messages.
+     */
+    @EventLog
+    void HandleBTPMessagesResult(int _index, BigInteger _code);
+
     @External
     void handleBTPError(Address _addr, String _src, String _svc, BigInteger _sn, long _code, String _msg);
 
@@ -181,6 +181,24 @@ public class MockBMCImpl implements MockBMC {
         bsh.handleBTPMessage(_from, _svc, _sn, _msg);
     }
 
+    @External
+    public void handleBTPMessages(Address _addr, String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        for (int i = 0; i < _sn.length; i++) {
+            if (_sn[i].compareTo(BigInteger.ZERO) > 0) {
+                addResponse(_from[i], _svc, _sn[i]);
+            }
+        }
+        BatchBSHScoreInterface bsh = new BatchBSHScoreInterface(_addr);
+        BigInteger[] results = bsh.handleBTPMessages(_from, _svc, _sn, _msg);
+        for (int i = 0; i < results.length; i++) {
+            HandleBTPMessagesResult(i, results[i]);
+        }
+    }
+
+    @EventLog
+    public void HandleBTPMessagesResult(int _index, BigInteger _code) {
+    }
+
     @External
     public void handleBTPError(Address _addr, String _src, String _svc, BigInteger _sn, long _code, String _msg) {
         BSHScoreInterface bsh = new BSHScoreInterface(_addr);
@@ -16,7 +16,7 @@
 
 package foundation.icon.btp.mock;
 
-import foundation.icon.btp.lib.BSH;
+import foundation.icon.btp.lib.BatchBSH;
 import foundation.icon.score.client.ScoreClient;
 import score.Address;
 import score.annotation.EventLog;
@@ -29,7 +29,36 @@ import java.math.BigInteger;
  * for BMC
  */
 @ScoreClient
-public interface MockBSH extends BSH {
+public interface MockBSH extends BatchBSH {
+    //modes of handleBTPMessages, to test batch delivery of BMC
+    int BATCH_SUPPORTED = 0;
+    int BATCH_UNSUPPORTED = 1;
+    int BATCH_REVERT = 2;
+    int BATCH_INVALID_LENGTH = 3;
+
+    /**
+     * Sets the behavior of handleBTPMessages.
+     * BATCH_UNSUPPORTED reverts always, like the BSH which doesn't implement BatchBSH.
+     * BATCH_REVERT reverts only if there is any message, so it passes the probing of BMC.
+     * BATCH_INVALID_LENGTH returns the results with invalid length without handling messages.
+     * Since BMC caches the result of probing, the service should be added again after changing the mode.
+     */
+    @External
+    void setBatchMode(int _mode);
+
+    /**
+     * Makes the handling of the message which has _sn fail with BTPException.BSH(_code), zero to clear.
+     * handleBTPMessage reverts, and handleBTPMessages returns the code of the exception for the message.
+     */
+    @External
+    void setErrorCode(BigInteger _sn, int _code);
+
+    /**
+     * If true, sends the received message back to the source by BMC.sendMessage while handling it,
+     * to test the call which accesses BMC again during handleRelayMessage.
+     */
+    @External
+    void setReply(boolean _reply);
 
     @Payable
     @External
@@ -21,7 +21,9 @@ import foundation.icon.btp.lib.BTPException;
 import foundation.icon.score.util.Logger;
 import score.Address;
 import score.Context;
+import score.DictDB;
 import score.UserRevertedException;
+import score.VarDB;
 import score.annotation.EventLog;
 import score.annotation.External;
 import score.annotation.Payable;
@@ -31,12 +33,63 @@ import java.math.BigInteger;
 public class MockBSHImpl implements MockBSH {
     private static final Logger logger = Logger.getLogger(MockBSHImpl.class);
 
+    private final VarDB<Boolean> reply = Context.newVarDB("reply", Boolean.class);
+    private final VarDB<Integer> batchMode = Context.newVarDB("batchMode", Integer.class);
+    private final DictDB<BigInteger, Integer> errorCodes = Context.newDictDB("errorCodes", Integer.class);
+
     public MockBSHImpl() {
     }
 
     @External
-    public void handleBTPMessage(String _from, String _svc, BigInteger _sn, byte[] _msg) {
+    public void setReply(boolean _reply) {
+        reply.set(_reply);
+    }
+
+    @External
+    public void setBatchMode(int _mode) {
+        batchMode.set(_mode);
+    }
+
+    @External
+    public void setErrorCode(BigInteger _sn, int _code) {
+        errorCodes.set(_sn, _code == 0 ? null : _code);
+    }
+
+    private void handle(String _from, String _svc, BigInteger _sn, byte[] _msg) {
+        Integer code = errorCodes.get(_sn);
+        if (code != null) {
+            throw new BTPException.BSH(code, "error by setErrorCode");
+        }
         HandleBTPMessage(_from, _svc, _sn, _msg);
+        if (reply.getOrDefault(false)) {
+            sendMessage(Context.getCaller(), _from, _svc, BigInteger.ZERO, _msg);
+        }
+    }
+
+    @External
+    public void handleBTPMessage(String _from, String _svc, BigInteger _sn, byte[] _msg) {
+        handle(_from, _svc, _sn, _msg);
+    }
+
+    @External
+    public BigInteger[] handleBTPMessages(String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        int mode = batchMode.getOrDefault(BATCH_SUPPORTED);
+        if (mode == BATCH_UNSUPPORTED || (mode == BATCH_REVERT && _msg.length > 0)) {
+            throw BTPException.unknown("not supported handleBTPMessages");
+        }
+        if (mode == BATCH_INVALID_LENGTH && _msg.length > 0) {
+            return new BigInteger[_msg.length + 1];
+        }
+        BigInteger[] ret = new BigInteger[_msg.length];
+        for (int i = 0; i < _msg.length; i++) {
+            try {
+                handle(_from[i], _svc, _sn[i], _msg[i]);
+                ret[i] = BigInteger.ZERO;
+            } catch (BTPException e) {
+                ret[i] = BigInteger.valueOf(e.getCode());
+            }
+        }
+        return ret;
     }
 
     @External
@@ -20,6 +20,7 @@ import foundation.icon.btp.mock.MockBMCScoreClient;
 import foundation.icon.jsonrpc.model.TransactionResult;
 import foundation.icon.score.test.ScoreIntegrationTest;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 public interface MockBMCIntegrationTest {
@@ -44,6 +45,14 @@ public interface MockBMCIntegrationTest {
                 consumer);
     }
 
+    static Consumer<TransactionResult> handleBTPMessagesResultEvents(
+            Consumer<List<MockBMCScoreClient.HandleBTPMessagesResult>> consumer) {
+        return ScoreIntegrationTest.eventLogsChecker(
+                mockBMC._address(),
+                MockBMCScoreClient.HandleBTPMessagesResult::eventLogs,
+                consumer);
+    }
+
     static <T> Consumer<TransactionResult> eventLogChecker(
             ScoreIntegrationTest.EventLogsSupplier<T> supplier, Consumer<T> consumer) {
         return ScoreIntegrationTest.eventLogChecker(
@@ -17,6 +17,7 @@
 package foundation.icon.btp.mock;
 
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.BTPException;
 import foundation.icon.btp.test.*;
 import foundation.icon.jsonrpc.Address;
 import foundation.icon.score.test.ScoreIntegrationTest;
@@ -67,6 +68,29 @@ class MockBSHTest implements BTPIntegrationTest, MockBSHIntegrationTest {
                 to, svc, sn, msg);
     }
 
+    @Test
+    void handleBTPMessagesShouldReturnErrorCode() {
+        BigInteger errSn = sn.add(BigInteger.ONE);
+        mockBSH.setErrorCode(errSn, (int) errCode);
+        try {
+            MockBMCIntegrationTest.mockBMC.handleBTPMessages(
+                    MockBMCIntegrationTest.handleBTPMessagesResultEvents(
+                            (l) -> {
+                                assertEquals(2, l.size());
+                                assertEquals(BigInteger.ZERO, l.get(0).get_code());
+                                assertEquals(BigInteger.valueOf(
+                                        new BTPException.BSH((int) errCode, errMsg).getCode()),
+                                        l.get(1).get_code());
+                            }
+                    ).andThen(MockBSHIntegrationTest.handleBTPMessageEvent(
+                            (el) -> assertEquals(sn, el.get_sn()))),
+                    mockBSH._address(),
+                    new String[]{to, to}, svc, new BigInteger[]{sn, errSn}, new byte[][]{msg, msg});
+        } finally {
+            mockBSH.setErrorCode(errSn, 0);
+        }
+    }
+
     @Test
     void handleBTPErrorShouldMakeEventLog() {
         mockBSH.handleBTPError(
@@ -17,8 +17,9 @@
 package foundation.icon.btp.xcall;
 
 import foundation.icon.btp.lib.BMCScoreInterface;
-import foundation.icon.btp.lib.BSH;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.BTPException;
+import foundation.icon.btp.lib.BatchBSH;
 import score.Address;
 import score.Context;
 import score.DictDB;
@@ -32,7 +33,7 @@ import score.annotation.Payable;
 
 import java.math.BigInteger;
 
-public class CallServiceImpl implements BSH, CallService, FeeManage {
+public class CallServiceImpl implements BatchBSH, CallService, FeeManage {
     public static final int MAX_DATA_SIZE = 2048;
     public static final int MAX_ROLLBACK_SIZE = 1024;
 
@@ -229,20 +230,83 @@ public class CallServiceImpl implements BSH, CallService, FeeManage {
     public void handleBTPMessage(String _from, String _svc, BigInteger _sn, byte[] _msg) {
         onlyBMC();
         checkService(_svc);
+        handleCSMessage(_from, _sn, _msg);
+    }
+
+    @Override
+    @External
+    public BigInteger[] handleBTPMessages(String[] _from, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        onlyBMC();
+        int len = _msg.length;
+        if (len > 0) {
+            checkService(_svc);
+        }
+        Object[] messages = new Object[len];
+        BigInteger[] results = new BigInteger[len];
+        for (int i = 0; i < len; i++) {
+            results[i] = BigInteger.ZERO;
+            // reject invalid message without any state change
+            try {
+                messages[i] = checkCSMessage(_msg[i]);
+            } catch (Exception e) {
+                results[i] = BigInteger.valueOf(BTPException.of(e, BTPException.Type.BSH).getCode());
+            }
+        }
+        // failure on handling reverts all, then BMC delivers each message by handleBTPMessage
+        for (int i = 0; i < len; i++) {
+            if (results[i].signum() == 0) {
+                handleCheckedMessage(_from[i], _sn[i], messages[i]);
+            }
+        }
+        return results;
+    }
 
-        CSMessage msg = CSMessage.fromBytes(_msg);
+    /**
+     * Decodes the message and checks whether it could be handled, without any state change.
+     *
+     * @return decoded CSMessageRequest or CSMessageResponse
+     */
+    private Object checkCSMessage(byte[] data) {
+        CSMessage msg = CSMessage.fromBytes(data);
         switch (msg.getType()) {
             case CSMessage.REQUEST:
-                handleRequest(_from, _sn, msg.getData());
+                return CSMessageRequest.fromBytes(msg.getData());
+            case CSMessage.RESPONSE:
+                CSMessageResponse msgRes = CSMessageResponse.fromBytes(msg.getData());
+                if (msgRes.getCode() != CSMessageResponse.SUCCESS) {
+                    CallRequest req = requests.get(msgRes.getSn());
+                    if (req != null && req.getRollback() == null) {
+                        throw new IllegalArgumentException("NoRollbackData");
+                    }
+                }
+                return msgRes;
+            default:
+                throw new IllegalArgumentException("UnknownMsgType(" + msg.getType() + ")");
+        }
+    }
+
+    private void handleCSMessage(String from, BigInteger sn, byte[] data) {
+        CSMessage msg = CSMessage.fromBytes(data);
+        switch (msg.getType()) {
+            case CSMessage.REQUEST:
+                handleRequest(from, sn, CSMessageRequest.fromBytes(msg.getData()));
                 break;
             case CSMessage.RESPONSE:
-                handleResponse(_from, _sn, msg.getData());
+                handleResponse(from, sn, CSMessageResponse.fromBytes(msg.getData()));
                 break;
             default:
                 Context.revert("UnknownMsgType(" + msg.getType() + ")");
         }
     }
 
+    private void handleCheckedMessage(String from, BigInteger sn, Object msg) {
+        if (msg instanceof CSMessageRequest) {
+            handleRequest(from, sn, (CSMessageRequest) msg);
+        } else {
+            handleResponse(from, sn, (CSMessageResponse) msg);
+        }
+    }
+
     @Override
     @External
     public void handleBTPError(String _src, String _svc, BigInteger _sn, long _code, String _msg) {
@@ -251,7 +315,7 @@ public class CallServiceImpl implements BSH, CallService, FeeManage {
 
         String errMsg = "BTPError{code=" + _code + ", msg=" + _msg + "}";
         CSMessageResponse res = new CSMessageResponse(_sn, CSMessageResponse.BTP_ERROR, errMsg);
-        handleResponse(_src, _sn, res.toBytes());
+        handleResponse(_src, _sn, res);
     }
     /* ========================================= */
 
@@ -261,8 +325,7 @@ public class CallServiceImpl implements BSH, CallService, FeeManage {
         return bmc.sendMessage(value, netTo, NAME, sn, msg.toBytes());
     }
 
-    private void handleRequest(String netFrom, BigInteger sn, byte[] data) {
-        CSMessageRequest msgReq = CSMessageRequest.fromBytes(data);
+    private void handleRequest(String netFrom, BigInteger sn, CSMessageRequest msgReq) {
         BTPAddress from = new BTPAddress(netFrom, msgReq.getFrom());
         String to = msgReq.getTo();
 
@@ -274,8 +337,7 @@ public class CallServiceImpl implements BSH, CallService, FeeManage {
         CallMessage(from.toString(), to, msgReq.getSn(), reqId);
     }
 
-    private void handleResponse(String netFrom, BigInteger sn, byte[] data) {
-        CSMessageResponse msgRes = CSMessageResponse.fromBytes(data);
+    private void handleResponse(String netFrom, BigInteger sn, CSMessageResponse msgRes) {
         BigInteger resSn = msgRes.getSn();
         CallRequest req = requests.get(resSn);
         if (req == null) {
@@ -467,4 +467,51 @@ class CallServiceImplTest implements CSIntegrationTest {
         }));
         callSvc.executeRollback(checker, srcSn);
     }
+
+    @Order(30)
+    @Test
+    void handleBTPMessagesShouldReturnResults() {
+        var from = new BTPAddress(linkNet, sampleAddress.toString());
+        var reqId = getNextReqId();
+        var request = new CSMessageRequest(from.account(), to.account(), srcSn, false,
+                "handleBTPMessagesShouldReturnResults".getBytes());
+        var response = new CSMessageResponse(srcSn, CSMessageResponse.SUCCESS, null);
+        byte[][] msgs = new byte[][]{
+                new CSMessage(CSMessage.REQUEST, request.toBytes()).toBytes(),
+                new CSMessage(CSMessage.RESPONSE + 1, request.toBytes()).toBytes(),
+                new CSMessage(CSMessage.RESPONSE, response.toBytes()).toBytes()
+        };
+        var checker = MockBMCIntegrationTest.handleBTPMessagesResultEvents((l) -> {
+            assertEquals(msgs.length, l.size());
+            assertEquals(BigInteger.ZERO, l.get(0).get_code());
+            assertTrue(l.get(1).get_code().signum() > 0);
+            assertEquals(BigInteger.ZERO, l.get(2).get_code());
+        }).andThen(CSIntegrationTest.callMessageEvent((el) -> {
+            assertEquals(from.toString(), el.get_from());
+            assertEquals(to.account(), el.get_to());
+            assertEquals(srcSn, el.get_sn());
+            assertEquals(reqId, el.get_reqId());
+        })).andThen(CSIntegrationTest.responseMessageEventShouldNotExists());
+        MockBMCIntegrationTest.mockBMC.handleBTPMessages(
+                checker, csAddress,
+                new String[]{linkNet, linkNet, linkNet}, CallService.NAME,
+                new BigInteger[]{BigInteger.ZERO, BigInteger.ZERO, BigInteger.ZERO}, msgs);
+    }
+
+    @Order(31)
+    @Test
+    @SuppressWarnings("ThrowableNotThrown")
+    void handleBTPMessagesWithInvalidServiceName() {
+        var request = new CSMessageRequest(sampleAddress.toString(), to.account(), srcSn, false,
+                "handleBTPMessagesWithInvalidServiceName".getBytes());
+        AssertRevertedException.assertUserReverted(0, () ->
+                MockBMCIntegrationTest.mockBMC.handleBTPMessages(
+                        csAddress, new String[]{linkNet}, "invalid", new BigInteger[]{BigInteger.ZERO},
+                        new byte[][]{new CSMessage(CSMessage.REQUEST, request.toBytes()).toBytes()})
+        );
+        // BMC probes BatchBSH with empty messages
+        MockBMCIntegrationTest.mockBMC.handleBTPMessages(
+                MockBMCIntegrationTest.handleBTPMessagesResultEvents((l) -> assertEquals(0, l.size())),
+                csAddress, new String[0], "invalid", new BigInteger[0], new byte[0][]);
+    }
 }